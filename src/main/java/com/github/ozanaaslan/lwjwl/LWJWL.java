@@ -1,44 +1,100 @@
 package com.github.ozanaaslan.lwjwl;
 
+import com.github.ozanaaslan.lwjwl.server.JdkServerEngine;
+import com.github.ozanaaslan.lwjwl.server.ServerEngine;
+import com.github.ozanaaslan.lwjwl.server.ServerOptions;
+import com.github.ozanaaslan.lwjwl.server.Transport;
+import com.github.ozanaaslan.lwjwl.util.json.JsonException;
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.github.ozanaaslan.lwjwl.web.cache.ResponseCache;
 import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
 import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Endpoint;
-import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Param;
-import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.*;
-import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
-import com.github.ozanaaslan.lwjwl.web.endpoint.response.GenericResponse;
 import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
-import com.github.ozanaaslan.lwjwl.web.endpoint.response.Status;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.EndpointInvoker;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.ParameterBinding;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.Route;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.RouteMatch;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.RouteTable;
+import com.github.ozanaaslan.lwjwl.web.error.ErrorResponses;
+import com.github.ozanaaslan.lwjwl.web.file.StaticFiles;
+import com.github.ozanaaslan.lwjwl.web.metrics.Metrics;
+import com.github.ozanaaslan.lwjwl.web.session.Cookie;
+import com.github.ozanaaslan.lwjwl.web.websocket.WebSocketEndpoint;
+import com.github.ozanaaslan.lwjwl.web.websocket.WebSockets;
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.WebSocket;
 import com.sun.net.httpserver.HttpServer;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class LWJWL {
 
+    private static final Log LOG = Log.get(LWJWL.class);
+
     @Getter
     public static LWJWL lwjwl;
     @Getter
     private final int port;
     @Getter
+    private final ServerOptions options;
+    /**
+     * The JDK server underneath, or null when running on another {@link com.github.ozanaaslan.lwjwl.server.Transport}.
+     */
+    @Getter
     private HttpServer ancestorServer;
     @Getter
+    private ServerEngine engine;
+    @Getter
+    private Executor executor;
+    @Getter
     private EndpointController centralEndpointController;
     @Getter
     private ArrayList<Method> endpoints;
     @Getter
+    private RouteTable routeTable;
+    @Getter
     private Logger logger;
+    /**
+     * Error responses and the handlers for exceptions thrown by endpoints.
+     */
+    @Getter
+    private final ErrorResponses errors = new ErrorResponses();
+    /**
+     * Request metrics, or null unless enabled in the {@link ServerOptions}.
+     */
+    @Getter
+    private Metrics metrics;
+    @Getter
+    private final List<StaticFiles> staticFiles = new CopyOnWriteArrayList<>();
+    /**
+     * WebSocket endpoints by lower-cased path.
+     */
+    @Getter
+    private final Map<String, WebSocketEndpoint> webSockets = new ConcurrentHashMap<>();
+    /**
+     * Upper bound for request bodies in bytes; larger bodies are answered with 413. Unlimited by default.
+     */
+    @Getter
+    @Setter
+    private volatile long maxBodySize = Long.MAX_VALUE;
 
     public LWJWL(int port) {
+        this(port, new ServerOptions());
+    }
+
+    public LWJWL(int port, ServerOptions options) {
         this.port = port;
+        this.options = options;
         lwjwl = this;
         init();
     }
@@ -50,93 +106,196 @@ public class LWJWL {
 
     @SneakyThrows
     private void init() {
-        this.logger = Logger.getLogger(LWJWL.class.getName());
-        this.logger.info("Initializing server on port: " + port);
+        Log.setLevel(options.getLogLevel());
+        Log.setAsync(options.isAsyncLogging());
+        this.logger = LOG.getLogger();
+        LOG.info("Initializing server on port: " + port);
         this.endpoints = new ArrayList<>();
-        this.ancestorServer = HttpServer.create(new InetSocketAddress(port), 0);
-
-        (this.ancestorServer).setExecutor(Executors.newCachedThreadPool());
+        this.routeTable = new RouteTable();
+        this.metrics = options.isMetrics() ? new Metrics() : null;
+        this.executor = options.getExecutionModel().createExecutor();
+        this.engine = options.getTransport().create(options, this::getMaxBodySize);
+        LOG.info("Running endpoints on " + options.getExecutionModel() + " threads over " + options.getTransport());
         this.centralEndpointController = new EndpointController() {
             @Override
             public Response handle(EndpointController endpointController) {
 
                 try {
-                    Method method = getEndpoint(endpointController.getExchange().getRequestURI().getPath(),
-                            endpointController.getExchange().getRequestMethod());
-
-                    if (method == null)
-                        return new Response(Status.NOT_FOUND, ContentType.APPLICATION_JSON,
-                                new GenericResponse(404, "No such Endpoint", "NOT FOUND", "There's no such endpoint").toJson());
-
-
-                    HashMap<String, String> map = new HashMap<>();
-                    Optional.ofNullable(endpointController.getBodyParameters()).ifPresent(map::putAll);
-                    Optional.ofNullable(endpointController.getQueryParameters()).ifPresent(map::putAll);
-                    Optional.ofNullable(endpointController.getCookies())
-                            .ifPresent(cookies -> cookies.forEach(cookie -> map.put(cookie.getKey(), cookie.getValue())));
-
-                    List<String> parameterValues = new ArrayList<>();
-                    Parameter[] methodParams = method.getParameters();
-
-                    for (Parameter parameter : methodParams) {
-                        if (parameter.isAnnotationPresent(Param.class)) {
-                            String paramValue = map.get(parameter.getAnnotation(Param.class).value());
-                            if (paramValue == null)
-                                return new Response(Status.BAD_REQUEST, ContentType.APPLICATION_JSON,
-                                        new GenericResponse(400, "Request incomplete!", "BAD REQUEST",
-                                                "Missing required parameter: " + parameter.getAnnotation(Param.class).value()).toJson());
-                            parameterValues.add(paramValue);
-                        }
+                    if (!webSockets.isEmpty() && WebSockets.isUpgradeRequest(endpointController.getExchange())) {
+                        WebSocketEndpoint socket = webSockets.get(
+                                endpointController.getExchange().getRequestURI().getPath().toLowerCase(Locale.ROOT));
+                        if (socket != null)
+                            return Response.upgrade(socket);
                     }
 
+                    RouteMatch match = LWJWL.this.getRoute(endpointController.getExchange().getRequestURI().getPath(),
+                            endpointController.getExchange().getRequestMethod());
 
-                    Object[] params = new Object[method.getParameterCount()];
-                    params[0] = endpointController;
-
-                    for (int i = 0; i < parameterValues.size(); i++) {
-                        params[i + 1] = parameterValues.get(i);
+                    if (match == null) {
+                        Response file = staticFile(endpointController.getExchange().getRequestURI().getPath(),
+                                endpointController.getExchange().getRequestMethod());
+                        if (file != null)
+                            return file;
+                        return errors.notFound();
                     }
-                    logger.info("Invoking method: " + method.getName() + " with parameters: " + parameterValues);
+                    endpointController.setRoute(match.getRoute());
+                    if (metrics != null)
+                        metrics.routeStarted(match.getRoute());
 
-                    if(method.getReturnType() != Response.class)
-                        return Response.json(200, method.invoke(this, params));
-                    return (Response) method.invoke(this, params);
+                    ResponseCache cache = match.getRoute().getCache();
+                    if (cache != null)
+                        return cache.respond(endpointController, () -> invoke(endpointController, match));
+                    return invoke(endpointController, match);
 
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                    logger.severe("Method access error: " + e.getMessage());
-                    return new Response(Status.INTERNAL_SERVER_ERROR, ContentType.APPLICATION_JSON,
-                            new GenericResponse(500, "Couldn't access method", "INTERNAL SERVER ERROR", e.getMessage()).toJson());
                 } catch (InvocationTargetException e) {
-                    e.printStackTrace();
-                    logger.severe("Method invocation error: " + e.getCause().getMessage());
-                    logger.severe("Unexpected error: " + e.getMessage());
-                    return new Response(Status.INTERNAL_SERVER_ERROR, ContentType.APPLICATION_JSON,
-                            new GenericResponse(500, "Couldn't invoke method", "INTERNAL SERVER ERROR", e.getMessage()).toJson());
+                    return errors.exception(e.getCause(), endpointController);
                 } catch (Exception e) {
-                    e.printStackTrace();
-                    return new Response(Status.INTERNAL_SERVER_ERROR, ContentType.APPLICATION_JSON,
-                            new GenericResponse(500, "Something went wrong!", "INTERNAL SERVER ERROR", e.getMessage()).toJson());
+                    return errors.exception(e, endpointController);
                 }
             }
         };
 
-        this.ancestorServer.createContext("/", this.centralEndpointController);
-        this.ancestorServer.start();
+        this.engine.start(new InetSocketAddress(port), this.centralEndpointController, this.executor);
+        if (this.engine instanceof JdkServerEngine)
+            this.ancestorServer = ((JdkServerEngine) this.engine).getServer();
+    }
+
+    /**
+     * Binds the parameters of the matched endpoint and invokes it.
+     */
+    private Response invoke(EndpointController endpointController, RouteMatch match) throws Exception {
+        EndpointInvoker invoker = match.getRoute().getInvoker();
+        if (invoker.isControllerOnly()) {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Invoking method: " + invoker.getMethod().getName());
+            return toResponse(invoker, invoker.invoke(endpointController));
+        }
+
+        ParameterBinding[] bindings = invoker.getParameters();
+        Object[] params = new Object[bindings.length];
+
+        for (int i = 0; i < bindings.length; i++) {
+            ParameterBinding binding = bindings[i];
+            if (binding.getKind() == ParameterBinding.Kind.CONTROLLER) {
+                params[i] = endpointController;
+            } else if (binding.getKind() == ParameterBinding.Kind.PARAM) {
+                String paramValue = resolve(binding, endpointController, match);
+                if (paramValue == null)
+                    return errors.error(400, "Request incomplete!", "BAD REQUEST",
+                            "Missing required parameter: " + binding.getName());
+                try {
+                    params[i] = binding.convert(paramValue);
+                } catch (IllegalArgumentException e) {
+                    return errors.error(400, "Invalid parameter!", "BAD REQUEST",
+                            "Invalid value for parameter " + binding.getName() + ": " + e.getMessage());
+                }
+            } else if (binding.getKind() == ParameterBinding.Kind.BODY) {
+                try {
+                    params[i] = binding.readBody(endpointController);
+                } catch (JsonException e) {
+                    return errors.error(400, "Invalid request body!", "BAD REQUEST", e.getMessage());
+                }
+                if (params[i] == null)
+                    return errors.error(400, "Request incomplete!", "BAD REQUEST", "Missing request body");
+            }
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Invoking method: " + invoker.getMethod().getName() + " with parameters: " + Arrays.toString(params));
+
+        return toResponse(invoker, invoker.invoke(params));
+    }
+
+    /**
+     * Looks a parameter up in the sources it declares. Each source is parsed at most once per request
+     * and only if a parameter actually needs it.
+     */
+    private static String resolve(ParameterBinding binding, EndpointController controller, RouteMatch match) {
+        String name = binding.getName();
+        switch (binding.getSource()) {
+            case PATH:
+                return match.getVariable(name);
+            case QUERY:
+                return controller.getQueryParameter(name);
+            case BODY:
+                return controller.getBodyParameter(name);
+            case COOKIE:
+                return valueOf(controller.getCookie(name));
+            default:
+                String value = match.getVariable(name);
+                if (value == null)
+                    value = valueOf(controller.getCookie(name));
+                if (value == null)
+                    value = controller.getQueryParameter(name);
+                if (value == null)
+                    value = controller.getBodyParameter(name);
+                return value;
+        }
+    }
+
+    private static String valueOf(Cookie cookie) {
+        return cookie == null ? null : cookie.getValue();
+    }
+
+    private static Response toResponse(EndpointInvoker invoker, Object result) {
+        if (!invoker.isReturningResponse())
+            return Response.json(200, result);
+        return (Response) result;
+    }
+
+    private Response staticFile(String path, String requestMethod) {
+        if (staticFiles.isEmpty() || !(requestMethod.equals("GET") || requestMethod.equals("HEAD")))
+            return null;
+        for (StaticFiles mount : staticFiles) {
+            Response response = mount.respond(path);
+            if (response != null)
+                return response;
+        }
+        return null;
+    }
+
+    /**
+     * Serves the files below a directory under a URL prefix. Endpoints take precedence over files.
+     */
+    public StaticFiles serveStatic(String prefix, Path directory) {
+        StaticFiles mount = new StaticFiles(prefix, directory);
+        staticFiles.add(mount);
+        LOG.info("Serving " + mount.getRoot() + " under '" + mount.getPrefix() + "/'");
+        return mount;
+    }
+
+    /**
+     * Serves the metrics in the Prometheus text format on GET requests to a path.
+     *
+     * @throws IllegalStateException if metrics are not enabled in the {@link ServerOptions}
+     */
+    @SneakyThrows
+    public void exposeMetrics(String path) {
+        if (metrics == null)
+            throw new IllegalStateException("Metrics are disabled");
+        Route route = new Route(path, Set.of("GET"), Metrics.class.getMethod("scrape", EndpointController.class));
+        if (!routeTable.register(route)) {
+            LOG.warn("Redundant endpoint for '" + route.getPath() + "'. Skipping metrics");
+            return;
+        }
+        LOG.info("Serving metrics under '" + route.getPath() + "'");
     }
 
     public void stop() {
-        this.ancestorServer.stop(0);
+        this.engine.stop();
+        options.getExecutionModel().shutdown(this.executor);
+        Log.flush();
     }
 
     public Method getEndpoint(String path, String requestMethod) {
-        this.logger.info("Searching for endpoint for path: " + path + " with method: " + requestMethod);
-        Method result = endpoints.stream().filter(method -> method.getAnnotation(Endpoint.class)
-                .value().equalsIgnoreCase(path) && (!hasAnyAnnotation(method, GET.class, POST.class, PUT.class, PATCH.class, DELETE.class) || (Arrays.stream(method.getAnnotations())
-                .anyMatch(annotation -> annotation.annotationType().getSimpleName().equalsIgnoreCase(requestMethod))))).findFirst().orElse(null);
+        RouteMatch match = getRoute(path, requestMethod);
+        return match == null ? null : match.getRoute().getMethod();
+    }
 
-        if (result == null)
-            logger.warning("No matching endpoint found for path: " + path + " with method: " + requestMethod);
+    public RouteMatch getRoute(String path, String requestMethod) {
+        RouteMatch result = routeTable.lookup(path, requestMethod);
+        // Debug only: clients probing for paths would otherwise fill the log with warnings
+        if (result == null && LOG.isDebugEnabled())
+            LOG.debug("No matching endpoint found for path: " + path + " with method: " + requestMethod);
         return result;
     }
 
@@ -144,37 +303,47 @@ public class LWJWL {
     public void register(Method m) {
         Endpoint e = m.getDeclaredAnnotation(Endpoint.class);
         if (e == null) {
-            logger.warning("No @Endpoint on " + m.getName());
+            LOG.warn("No @Endpoint on " + m.getName());
+            return;
+        }
+        Route route;
+        try {
+            route = new Route(m);
+        } catch (IllegalArgumentException ex) {
+            LOG.warn("Cannot register " + m.getName() + ": " + ex.getMessage());
             return;
         }
-        String p = e.value().toLowerCase();
-        Set<String> nm = Stream.of(m.isAnnotationPresent(GET.class) ? "GET" : null,
-                        m.isAnnotationPresent(POST.class) ? "POST" : null,
-                        m.isAnnotationPresent(PUT.class) ? "PUT" : null,
-                        m.isAnnotationPresent(PATCH.class) ? "PATCH" : null,
-                        m.isAnnotationPresent(DELETE.class) ? "DELETE" : null)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-        if (endpoints.stream().anyMatch(r -> {
-            Endpoint re = r.getDeclaredAnnotation(Endpoint.class);
-            if (re == null || !re.value().equalsIgnoreCase(p)) return false;
-            Set<String> rm = Stream.of(r.isAnnotationPresent(GET.class) ? "GET" : null,
-                            r.isAnnotationPresent(POST.class) ? "POST" : null,
-                            r.isAnnotationPresent(PUT.class) ? "PUT" : null,
-                            r.isAnnotationPresent(PATCH.class) ? "PATCH" : null,
-                            r.isAnnotationPresent(DELETE.class) ? "DELETE" : null)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-            return (nm.isEmpty() && rm.isEmpty()) || nm.stream().anyMatch(rm::contains);
-        })) {
-            logger.warning("Redundant endpoint for '" + p + "'. Skipping " + m.getName());
+        if (!routeTable.register(route)) {
+            LOG.warn("Redundant endpoint for '" + route.getPath() + "'. Skipping " + m.getName());
             return;
         }
         endpoints.add(m);
-        logger.info("Registered " + m.getName() + " for '" + p + "' with " + (nm.isEmpty() ? "generic" : nm));
+        LOG.info("Registered " + m.getName() + " for '" + route.getPath() + "' with " + (route.isGeneric() ? "generic" : route.getVerbs()));
+    }
+
+    /**
+     * Serves a class annotated with {@link WebSocket} on its path.
+     */
+    public void registerWebSocket(Class<?> reference) {
+        WebSocketEndpoint endpoint;
+        try {
+            endpoint = WebSocketEndpoint.of(reference);
+        } catch (IllegalArgumentException ex) {
+            LOG.warn("Cannot register " + reference.getName() + ": " + ex.getMessage());
+            return;
+        }
+        if (webSockets.putIfAbsent(endpoint.getPath().toLowerCase(Locale.ROOT), endpoint) != null) {
+            LOG.warn("Redundant WebSocket endpoint for '" + endpoint.getPath() + "'. Skipping " + reference.getName());
+            return;
+        }
+        if (options.getTransport() != Transport.NIO)
+            LOG.warn("WebSocket '" + endpoint.getPath() + "' needs the NIO transport; upgrades will be refused");
+        LOG.info("Registered WebSocket " + reference.getName() + " for '" + endpoint.getPath() + "'");
     }
 
-    public void register(Class reference){
+    public void register(Class<?> reference){
+        if (reference.isAnnotationPresent(WebSocket.class))
+            registerWebSocket(reference);
         Arrays.stream(reference.getMethods())
                 .filter(method -> method.isAnnotationPresent(Endpoint.class)).forEach(method -> register(method));
     }
@@ -0,0 +1,14 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+/**
+ * Implemented by exchanges that can tell when their connection goes away, so long-lived responses
+ * are cleaned up right away instead of on their next failed write.
+ */
+public interface ConnectionEvents {
+
+    /**
+     * Runs the listener once the connection is closed. Listeners run on the engine's own threads and must return quickly.
+     */
+    void onConnectionClosed(Runnable listener);
+
+}
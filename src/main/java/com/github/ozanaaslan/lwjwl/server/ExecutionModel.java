@@ -0,0 +1,118 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import lombok.Getter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Decides which threads run the endpoints.
+ * <ul>
+ *     <li>{@link #cached()}: a new platform thread whenever all are busy. The default; cheap when idle,
+ *     but bursts create as many threads as there are concurrent requests.</li>
+ *     <li>{@link #virtualThreads()}: one virtual thread per request. Blocking handlers scale to very high
+ *     concurrency at a few hundred bytes per request. Needs Java 21; falls back to {@link #cached()} before.</li>
+ *     <li>{@link #bounded(int, int, RejectedExecutionHandler)}: a fixed number of threads and a bounded queue.
+ *     Memory stays flat under overload; what happens to excess requests is up to the rejection policy.</li>
+ *     <li>{@link #of(Executor)}: any executor managed by the caller.</li>
+ * </ul>
+ */
+public final class ExecutionModel {
+
+    private static final Log LOG = Log.get(ExecutionModel.class);
+
+    @Getter
+    private final String name;
+    private final Supplier<Executor> factory;
+    /**
+     * Whether the server created the executor and shuts it down on stop.
+     */
+    @Getter
+    private final boolean owned;
+
+    private ExecutionModel(String name, Supplier<Executor> factory, boolean owned) {
+        this.name = name;
+        this.factory = factory;
+        this.owned = owned;
+    }
+
+    public static ExecutionModel cached() {
+        return new ExecutionModel("cached", () -> Executors.newCachedThreadPool(threadFactory("lwjwl-worker")), true);
+    }
+
+    public static ExecutionModel virtualThreads() {
+        return new ExecutionModel("virtual", ExecutionModel::newVirtualThreadExecutor, true);
+    }
+
+    /**
+     * @param threads the number of worker threads
+     * @param queueCapacity how many requests may wait for a thread
+     * @param rejectionPolicy what happens to requests once the queue is full. With
+     *                        {@link ThreadPoolExecutor.AbortPolicy} the connection is closed,
+     *                        {@link ThreadPoolExecutor.CallerRunsPolicy} runs the request on the accepting
+     *                        thread, which stops accepting until it is done.
+     */
+    public static ExecutionModel bounded(int threads, int queueCapacity, RejectedExecutionHandler rejectionPolicy) {
+        return new ExecutionModel("bounded(" + threads + "," + queueCapacity + ")",
+                () -> new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), threadFactory("lwjwl-worker"), rejectionPolicy), true);
+    }
+
+    public static ExecutionModel bounded(int threads, int queueCapacity) {
+        return bounded(threads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs requests on an executor owned by the caller; the server never shuts it down.
+     */
+    public static ExecutionModel of(Executor executor) {
+        return new ExecutionModel(executor.getClass().getSimpleName(), () -> executor, false);
+    }
+
+    public Executor createExecutor() {
+        return factory.get();
+    }
+
+    /**
+     * Shuts an executor created by this model down, unless it belongs to the caller.
+     */
+    public void shutdown(Executor executor) {
+        if (owned && executor instanceof ExecutorService)
+            ((ExecutorService) executor).shutdown();
+    }
+
+    /**
+     * Virtual threads are looked up reflectively so the library still runs on Java 17.
+     */
+    private static Executor newVirtualThreadExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOG.warn("Virtual threads need Java 21 or newer, falling back to a cached thread pool");
+            return cached().createExecutor();
+        }
+    }
+
+    static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Implemented by exchanges that can hand a region of a file to the socket without copying it through
+ * the heap, i.e. with {@link FileChannel#transferTo} straight into the socket channel.
+ */
+public interface FileTransfer {
+
+    /**
+     * Writes {@code count} bytes of the file starting at {@code position} as part of the response body.
+     * The response headers must have been sent.
+     */
+    void transferFrom(FileChannel file, long position, long count) throws IOException;
+
+}
@@ -0,0 +1,48 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs on the {@link HttpServer} that ships with the JDK.
+ * <p>
+ * The JDK server keeps connections alive on its own and closes idle ones after
+ * {@code sun.net.httpserver.idleInterval}, 30 seconds unless that property is set for the whole JVM;
+ * {@link ServerOptions#getIdleTimeout()} is not applied, as doing so would change every JDK server in the
+ * process. It has no limit on requests per connection or on connections.
+ */
+public class JdkServerEngine implements ServerEngine {
+
+    private static final Log LOG = Log.get(JdkServerEngine.class);
+
+    private final ServerOptions options;
+    @Getter
+    private HttpServer server;
+
+    public JdkServerEngine(ServerOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public void start(InetSocketAddress address, HttpHandler handler, Executor executor) throws IOException {
+        if (options.getMaxRequestsPerConnection() > 0 || options.getMaxConnections() > 0)
+            LOG.warn("maxRequestsPerConnection and maxConnections are not supported by the JDK server, use Transport.NIO");
+
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", handler);
+        this.server.start();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null)
+            server.stop(0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import java.io.IOException;
+
+/**
+ * Implemented by exchanges whose connection can switch to another protocol after a 101 response.
+ */
+public interface ProtocolUpgrade {
+
+    /**
+     * Sends 101 Switching Protocols with the response headers set so far and hands the connection to the handler.
+     * The handler starts receiving once the exchange is closed, beginning with any bytes the client sent ahead.
+     */
+    RawConnection upgrade(RawConnection.Handler handler) throws IOException;
+
+}
@@ -0,0 +1,54 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * A connection that has left HTTP behind after a protocol upgrade. Bytes pass through unframed;
+ * what they mean is up to the {@link Handler}.
+ */
+public interface RawConnection {
+
+    /**
+     * Writes the buffers in order and as one piece. A caller other than the engine is blocked while too
+     * much is waiting for a slow peer.
+     */
+    void write(ByteBuffer... data) throws IOException;
+
+    /**
+     * Like {@link #write(ByteBuffer...)}, but refuses instead of blocking when too much is waiting already.
+     *
+     * @return false if nothing was written
+     */
+    boolean offer(ByteBuffer... data) throws IOException;
+
+    /**
+     * Stops or resumes reading, so a consumer that falls behind holds the peer back through TCP flow control.
+     */
+    void setReading(boolean reading);
+
+    /**
+     * Closes the connection once everything written so far has been sent.
+     */
+    void close();
+
+    boolean isOpen();
+
+    InetSocketAddress getRemoteAddress();
+
+    interface Handler {
+
+        /**
+         * Called on the engine's thread with bytes read from the peer. Must consume all of them and must not block.
+         */
+        void onRead(ByteBuffer data);
+
+        /**
+         * Called once when the connection is closed, by either side.
+         */
+        void onClosed();
+
+    }
+
+}
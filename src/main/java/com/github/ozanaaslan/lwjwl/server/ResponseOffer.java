@@ -0,0 +1,20 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import java.io.IOException;
+
+/**
+ * Implemented by exchanges whose response body can refuse a write instead of blocking while a slow client
+ * has too much waiting already, so a thread serving many long-lived responses is never held up by one of them.
+ */
+public interface ResponseOffer {
+
+    /**
+     * Writes the bytes as part of the response body and sends them at once, unless too much is waiting for
+     * the client already. After a refusal, closing the exchange drops the connection instead of finishing the body.
+     * The response headers must have been sent.
+     *
+     * @return false if nothing was written
+     */
+    boolean offer(byte[] data) throws IOException;
+
+}
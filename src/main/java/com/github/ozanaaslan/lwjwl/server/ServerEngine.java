@@ -0,0 +1,22 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * The transport underneath the server: accepts connections, parses requests and hands each of them
+ * to the handler as an {@link com.sun.net.httpserver.HttpExchange}, so endpoints run the same on every engine.
+ */
+public interface ServerEngine {
+
+    /**
+     * Binds to the address and starts serving. Handlers are run on the given executor.
+     */
+    void start(InetSocketAddress address, HttpHandler handler, Executor executor) throws IOException;
+
+    void stop();
+
+}
@@ -0,0 +1,74 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import com.github.ozanaaslan.lwjwl.util.log.LogLevel;
+import com.github.ozanaaslan.lwjwl.web.compression.Compression;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * Settings that shape the server and have to be known before it starts.
+ * Setters return the options, so they can be chained:
+ * <pre>{@code
+ * new LWJWL(8080, new ServerOptions().setExecutionModel(ExecutionModel.virtualThreads()));
+ * }</pre>
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class ServerOptions {
+
+    private ExecutionModel executionModel = ExecutionModel.cached();
+    private Transport transport = Transport.JDK;
+    /**
+     * Number of selector threads of the {@link Transport#NIO} engine.
+     */
+    private int eventLoops = Runtime.getRuntime().availableProcessors();
+    /**
+     * Size of the pooled direct buffers the {@link Transport#NIO} engine reads into. Request line and
+     * headers have to fit into one buffer.
+     */
+    private int bufferSize = 16 * 1024;
+    /**
+     * How long a keep-alive connection may sit without a request before it is closed. Zero keeps it open.
+     * Only enforced by the {@link Transport#NIO} engine.
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    /**
+     * After this many requests the response asks the client to reconnect. Zero allows any number.
+     * Only enforced by the {@link Transport#NIO} engine.
+     */
+    private int maxRequestsPerConnection;
+    /**
+     * Further clients wait in the accept backlog while this many connections are open. Zero allows any number.
+     * Only enforced by the {@link Transport#NIO} engine.
+     */
+    private int maxConnections;
+    /**
+     * Compression of response bodies; null sends everything uncompressed.
+     */
+    private Compression compression;
+    /**
+     * How long a server-sent events stream may stay quiet before a comment is sent to keep it alive. Zero sends none.
+     */
+    private Duration sseHeartbeat = Duration.ofSeconds(15);
+    /**
+     * Level for LWJWL's own logging. Per-request messages are logged at debug.
+     */
+    private LogLevel logLevel = LogLevel.INFO;
+    /**
+     * Whether log records are handed to java.util.logging by a background thread instead of the logging one.
+     */
+    private boolean asyncLogging = true;
+    /**
+     * Writes one JSON line per request to the {@code com.github.ozanaaslan.lwjwl.access} logger.
+     */
+    private boolean accessLog;
+    /**
+     * Counts requests, status codes and latencies per route; see {@link com.github.ozanaaslan.lwjwl.LWJWL#getMetrics()}.
+     */
+    private boolean metrics;
+
+}
@@ -0,0 +1,29 @@
+package com.github.ozanaaslan.lwjwl.server;
+
+import com.github.ozanaaslan.lwjwl.server.nio.NioServerEngine;
+
+import java.util.function.LongSupplier;
+
+public enum Transport {
+    /**
+     * The {@code com.sun.net.httpserver} implementation of the JDK.
+     */
+    JDK {
+        @Override
+        public ServerEngine create(ServerOptions options, LongSupplier maxBodySize) {
+            return new JdkServerEngine(options);
+        }
+    },
+    /**
+     * A selector based engine with a fixed number of event loops and pooled direct buffers.
+     * Idle keep-alive connections cost a socket and a few hundred bytes, not a thread.
+     */
+    NIO {
+        @Override
+        public ServerEngine create(ServerOptions options, LongSupplier maxBodySize) {
+            return new NioServerEngine(options, maxBodySize);
+        }
+    };
+
+    public abstract ServerEngine create(ServerOptions options, LongSupplier maxBodySize);
+}
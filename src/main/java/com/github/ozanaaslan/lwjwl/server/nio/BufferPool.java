@@ -0,0 +1,33 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct read buffers of one event loop. Only used from the loop's own thread, so it needs no locking.
+ * Connections hold a buffer only while they have unparsed bytes; idle keep-alive connections hold none.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(bufferSize);
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < maxPooled)
+            free.push(buffer);
+    }
+}
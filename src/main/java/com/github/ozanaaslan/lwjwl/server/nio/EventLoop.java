@@ -0,0 +1,164 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One selector thread serving a share of the connections. All connection state is touched only from
+ * this thread; other threads hand work over with {@link #execute(Runnable)}.
+ */
+final class EventLoop implements Runnable, Executor {
+
+    private static final Log LOG = Log.get(EventLoop.class);
+    private static final long SELECT_TIMEOUT = 1000;
+
+    private final NioServerEngine engine;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    @Getter
+    private final BufferPool bufferPool;
+    private final Thread thread;
+    private final long idleTimeout;
+    private long nextIdleCheck;
+    private volatile boolean running = true;
+
+    EventLoop(NioServerEngine engine, String name) throws IOException {
+        this.engine = engine;
+        this.selector = Selector.open();
+        this.bufferPool = new BufferPool(engine.getOptions().getBufferSize(), 64);
+        this.thread = new Thread(this, name);
+        Duration timeout = engine.getOptions().getIdleTimeout();
+        this.idleTimeout = timeout == null ? 0 : timeout.toNanos();
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                NioConnection connection = new NioConnection(engine, this, channel);
+                connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                closeQuietly(channel);
+                engine.connectionClosed();
+            }
+        });
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (!inEventLoop() && wakeupPending.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    void wakeup() {
+        if (wakeupPending.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (tasks.isEmpty())
+                    selector.select(SELECT_TIMEOUT);
+                else
+                    selector.selectNow();
+                wakeupPending.set(false);
+                runTasks();
+                processKeys();
+                closeIdleConnections();
+            } catch (Throwable t) {
+                LOG.warn("Event loop error", t);
+            }
+        }
+        for (SelectionKey key : selector.keys())
+            if (key.attachment() instanceof NioConnection)
+                ((NioConnection) key.attachment()).close();
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOG.warn("Event loop task failed", t);
+            }
+        }
+    }
+
+    private void processKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            NioConnection connection = (NioConnection) key.attachment();
+            try {
+                if (key.isValid() && key.isWritable())
+                    connection.onWritable();
+                if (key.isValid() && key.isReadable())
+                    connection.onReadable();
+            } catch (IOException | RuntimeException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Closes connections that have been waiting for a request for longer than the idle timeout, at most once a second.
+     */
+    private void closeIdleConnections() {
+        if (idleTimeout <= 0)
+            return;
+        long now = System.nanoTime();
+        if (now - nextIdleCheck < 0)
+            return;
+        nextIdleCheck = now + TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT);
+        for (SelectionKey key : selector.keys())
+            if (key.attachment() instanceof NioConnection)
+                ((NioConnection) key.attachment()).closeIfIdle(now, idleTimeout);
+    }
+
+    static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
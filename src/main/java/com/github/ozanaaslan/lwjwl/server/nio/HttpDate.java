@@ -0,0 +1,32 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.github.ozanaaslan.lwjwl.util.HttpDates;
+
+/**
+ * The value of the Date header, formatted at most once per second.
+ */
+final class HttpDate {
+
+    private static volatile Cached cached = new Cached(0, "");
+
+    private HttpDate() {
+    }
+
+    static String now() {
+        long second = System.currentTimeMillis() / 1000;
+        Cached current = cached;
+        if (current.second != second)
+            cached = current = new Cached(second, HttpDates.format(second * 1000));
+        return current.value;
+    }
+
+    private static final class Cached {
+        private final long second;
+        private final String value;
+
+        private Cached(long second, String value) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import lombok.Getter;
+
+/**
+ * A request that cannot be served. The connection answers with the status and is closed.
+ */
+final class HttpParseException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final int status;
+
+    HttpParseException(int status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+}
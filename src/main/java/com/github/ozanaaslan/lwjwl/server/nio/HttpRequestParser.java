@@ -0,0 +1,322 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Incremental HTTP/1.1 request parser. It is fed whatever arrived on the socket and picks up where it
+ * stopped, so a request may be split over any number of reads and one read may hold several
+ * pipelined requests. The head is parsed on its own so the request can be handled before its body has arrived;
+ * the body, with a Content-Length or chunked transfer encoding, is then passed on (de-chunked) as it comes in.
+ * Only a declared Content-Length is checked against the maximum body size here; a chunked body is up to
+ * whoever reads it, as with the JDK server.
+ */
+final class HttpRequestParser {
+
+    private static final int MAX_HEAD_SIZE = 64 * 1024;
+    private static final int MAX_HEADERS = 128;
+
+    private enum State {REQUEST_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, DONE}
+
+    private final LongSupplier maxBodySize;
+    private byte[] scratch = new byte[256];
+
+    private State state = State.REQUEST_LINE;
+    private int headSize;
+    private int headerCount;
+    private long remaining;
+
+    @Getter
+    private String method;
+    @Getter
+    private String target;
+    @Getter
+    private String protocol;
+    @Getter
+    private Headers headers = new Headers();
+    /**
+     * The declared length of the body, or -1 if it is chunked or there is none.
+     */
+    @Getter
+    private long contentLength = -1;
+
+    HttpRequestParser(LongSupplier maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Consumes bytes from the buffer until the head of a request is complete or the buffer is exhausted.
+     * Bytes following the head are left in the buffer.
+     *
+     * @return true if the head has been parsed; the body, if any, follows with {@link #parseBody}
+     */
+    boolean parse(ByteBuffer buffer) throws HttpParseException {
+        while (true) {
+            String line;
+            switch (state) {
+                case REQUEST_LINE:
+                    if ((line = readLine(buffer, true)) == null)
+                        return false;
+                    if (!line.isEmpty()) {
+                        requestLine(line);
+                        state = State.HEADERS;
+                    }
+                    break;
+                case HEADERS:
+                    if ((line = readLine(buffer, true)) == null)
+                        return false;
+                    if (line.isEmpty()) {
+                        startBody();
+                        return true;
+                    }
+                    header(line);
+                    break;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Passes the body bytes in the buffer on to the stream, without the chunk framing, until the body is
+     * complete, the buffer is exhausted or the stream is full. Bytes following the body are left in the buffer.
+     *
+     * @return true once the whole body has been passed on
+     */
+    boolean parseBody(ByteBuffer buffer, RequestBodyStream body) throws HttpParseException {
+        while (true) {
+            String line;
+            switch (state) {
+                case BODY:
+                case CHUNK_DATA:
+                    remaining -= body.offer(buffer, (int) Math.min(remaining, buffer.remaining()));
+                    if (remaining > 0)
+                        return false;
+                    state = state == State.BODY ? State.DONE : State.CHUNK_END;
+                    break;
+                case CHUNK_SIZE:
+                    if ((line = readLine(buffer, false)) == null)
+                        return false;
+                    chunkSize(line);
+                    break;
+                case CHUNK_END:
+                    if ((line = readLine(buffer, false)) == null)
+                        return false;
+                    if (!line.isEmpty())
+                        throw new HttpParseException(400, "Malformed chunk");
+                    state = State.CHUNK_SIZE;
+                    break;
+                case TRAILERS:
+                    if ((line = readLine(buffer, true)) == null)
+                        return false;
+                    if (line.isEmpty())
+                        state = State.DONE;
+                    break;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Called when the read buffer is full and the parser still wants more, i.e. a single line does not fit.
+     */
+    void overflow() throws HttpParseException {
+        // A full buffer in the middle of the body only means the handler has not caught up yet
+        if (isInData())
+            return;
+        if (state == State.REQUEST_LINE)
+            throw new HttpParseException(414, "Request line too long");
+        if (state == State.HEADERS || state == State.TRAILERS)
+            throw new HttpParseException(431, "Request header fields too large");
+        throw new HttpParseException(400, "Malformed chunk");
+    }
+
+    /**
+     * @return whether the body stopped in the middle of its data, i.e. it waits for room in the stream and not for a line
+     */
+    boolean isInData() {
+        return state == State.BODY || state == State.CHUNK_DATA;
+    }
+
+    /**
+     * @return whether the parsed head announces a body
+     */
+    boolean hasBody() {
+        return state == State.BODY || state == State.CHUNK_SIZE;
+    }
+
+    /**
+     * @return whether the client waits for a 100 Continue before sending the body the head announces
+     */
+    boolean expectsContinue() {
+        return hasBody() && "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+    }
+
+    /**
+     * @return whether the client intends to keep the connection open after this request
+     */
+    boolean isKeepAlive() {
+        String connection = headers.getFirst("Connection");
+        if ("HTTP/1.0".equals(protocol))
+            return connection != null && hasToken(connection, "keep-alive");
+        return connection == null || !hasToken(connection, "close");
+    }
+
+    /**
+     * @return whether nothing of the next request has been consumed yet
+     */
+    boolean isIdle() {
+        return state == State.REQUEST_LINE && headSize == 0;
+    }
+
+    void reset() {
+        state = State.REQUEST_LINE;
+        headSize = 0;
+        headerCount = 0;
+        remaining = 0;
+        contentLength = -1;
+        method = null;
+        target = null;
+        protocol = null;
+        headers = new Headers();
+    }
+
+    private void requestLine(String line) throws HttpParseException {
+        int first = line.indexOf(' ');
+        int last = line.lastIndexOf(' ');
+        if (first <= 0 || last <= first + 1)
+            throw new HttpParseException(400, "Malformed request line");
+        method = line.substring(0, first);
+        target = line.substring(first + 1, last);
+        protocol = line.substring(last + 1);
+        if (!protocol.startsWith("HTTP/"))
+            throw new HttpParseException(400, "Malformed request line");
+        if (!protocol.equals("HTTP/1.1") && !protocol.equals("HTTP/1.0"))
+            throw new HttpParseException(505, "HTTP version not supported");
+    }
+
+    private void header(String line) throws HttpParseException {
+        char first = line.charAt(0);
+        if (first == ' ' || first == '\t')
+            throw new HttpParseException(400, "Folded headers are not supported");
+        int colon = line.indexOf(':');
+        if (colon <= 0)
+            throw new HttpParseException(400, "Malformed header");
+        for (int i = 0; i < colon; i++) {
+            char c = line.charAt(i);
+            if (c == ' ' || c == '\t')
+                throw new HttpParseException(400, "Malformed header");
+        }
+        if (++headerCount > MAX_HEADERS)
+            throw new HttpParseException(431, "Too many headers");
+        headers.add(line.substring(0, colon), line.substring(colon + 1).trim());
+    }
+
+    private void startBody() throws HttpParseException {
+        String transferEncoding = headers.getFirst("Transfer-Encoding");
+        List<String> contentLength = headers.get("Content-Length");
+        if (transferEncoding != null) {
+            // Both headers at once is how requests get smuggled past proxies
+            if (contentLength != null)
+                throw new HttpParseException(400, "Both Content-Length and Transfer-Encoding present");
+            if (!transferEncoding.toLowerCase(Locale.ROOT).trim().endsWith("chunked"))
+                throw new HttpParseException(501, "Unsupported transfer encoding");
+            state = State.CHUNK_SIZE;
+            return;
+        }
+        if (contentLength == null) {
+            state = State.DONE;
+            return;
+        }
+        long length = -1;
+        for (String value : contentLength) {
+            long parsed = parseLength(value);
+            if (length != -1 && parsed != length)
+                throw new HttpParseException(400, "Conflicting Content-Length");
+            length = parsed;
+        }
+        if (length > maxBodySize.getAsLong())
+            throw new HttpParseException(413, "Request body too large");
+        if (length == 0) {
+            state = State.DONE;
+            return;
+        }
+        this.contentLength = length;
+        remaining = length;
+        state = State.BODY;
+    }
+
+    private void chunkSize(String line) throws HttpParseException {
+        int extension = line.indexOf(';');
+        String size = (extension < 0 ? line : line.substring(0, extension)).trim();
+        long length;
+        try {
+            length = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new HttpParseException(400, "Malformed chunk size");
+        }
+        if (length < 0)
+            throw new HttpParseException(400, "Malformed chunk size");
+        if (length == 0) {
+            state = State.TRAILERS;
+            return;
+        }
+        remaining = length;
+        state = State.CHUNK_DATA;
+    }
+
+    private static long parseLength(String value) throws HttpParseException {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18)
+            throw new HttpParseException(400, "Malformed Content-Length");
+        long length = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c < '0' || c > '9')
+                throw new HttpParseException(400, "Malformed Content-Length");
+            length = length * 10 + (c - '0');
+        }
+        return length;
+    }
+
+    private static boolean hasToken(String header, String token) {
+        for (String part : header.split(","))
+            if (part.trim().equalsIgnoreCase(token))
+                return true;
+        return false;
+    }
+
+    /**
+     * Reads a line terminated by LF (optionally preceded by CR) as ISO-8859-1.
+     *
+     * @return the line without its terminator, or null if the buffer holds no complete line
+     */
+    private String readLine(ByteBuffer buffer, boolean head) throws HttpParseException {
+        int start = buffer.position();
+        int end = buffer.limit();
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) != '\n')
+                continue;
+            int length = i - start;
+            if (head && (headSize += length + 1) > MAX_HEAD_SIZE)
+                throw new HttpParseException(431, "Request header fields too large");
+            buffer.position(i + 1);
+            if (length > 0 && buffer.get(i - 1) == '\r')
+                length--;
+            if (length == 0)
+                return "";
+            if (length > scratch.length)
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        }
+        return null;
+    }
+}
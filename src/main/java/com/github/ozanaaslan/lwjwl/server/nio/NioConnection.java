@@ -0,0 +1,570 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.github.ozanaaslan.lwjwl.server.RawConnection;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A client connection of the {@link NioServerEngine}. Reading, parsing and the connection lifecycle run on
+ * the owning {@link EventLoop}; responses are written by the handler thread and only fall back to the loop
+ * when the socket cannot take them right away.
+ * <p>
+ * Requests on one connection are served one after the other, in the order they arrived. A request is handed
+ * out as soon as its head is parsed, and its body streams in while the handler reads it. While a request is
+ * being handled the connection keeps reading ahead until its buffer is full, so pipelined requests are
+ * already parsed from memory when the response is complete and need no further round trip.
+ * <p>
+ * After a protocol upgrade the connection stops parsing HTTP and passes what it reads to a {@link RawConnection.Handler}.
+ */
+final class NioConnection {
+
+    /**
+     * A handler thread blocks once this many bytes are waiting for a slow client...
+     */
+    private static final int HIGH_WATER_MARK = 256 * 1024;
+    /**
+     * ...and continues once the queue has drained below this.
+     */
+    private static final int LOW_WATER_MARK = 64 * 1024;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final NioServerEngine engine;
+    private final EventLoop loop;
+    private final SocketChannel channel;
+    private final HttpRequestParser parser;
+    @Getter
+    private final InetSocketAddress remoteAddress;
+    @Getter
+    private final InetSocketAddress localAddress;
+    @Setter
+    private SelectionKey key;
+
+    private ByteBuffer readBuffer;
+    /**
+     * The body of the request being handled, while it is still arriving.
+     */
+    private RequestBodyStream body;
+    private boolean dispatched;
+    private boolean inputClosed;
+    private int requestCount;
+    private long lastActive = System.nanoTime();
+    private volatile RawConnection.Handler upgrade;
+    private RawConnection.Handler protocol;
+    private boolean readingSuspended;
+
+    private final Object writeLock = new Object();
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean closeWhenFlushed;
+    private volatile boolean closed;
+    private List<Runnable> closeListeners;
+
+    NioConnection(NioServerEngine engine, EventLoop loop, SocketChannel channel) throws IOException {
+        this.engine = engine;
+        this.loop = loop;
+        this.channel = channel;
+        this.parser = new HttpRequestParser(engine.getMaxBodySize());
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    void onReadable() throws IOException {
+        if (readBuffer == null)
+            readBuffer = loop.getBufferPool().acquire();
+        int read = channel.read(readBuffer);
+        if (protocol != null) {
+            if (read < 0) {
+                close();
+                return;
+            }
+            deliver();
+            if (!closed)
+                updateReadInterest();
+            return;
+        }
+        if (read < 0) {
+            // A client may send its last requests and shut its side down before reading the responses
+            inputClosed = true;
+            if (!dispatched) {
+                close();
+                return;
+            }
+            if (body != null)
+                processBody();
+            updateReadInterest();
+            return;
+        }
+        lastActive = System.nanoTime();
+        if (!dispatched) {
+            processInput();
+            return;
+        }
+        if (body != null)
+            processBody();
+        if (!closed)
+            updateReadInterest();
+    }
+
+    /**
+     * Parses what is in the read buffer. The buffer is in fill mode before and after.
+     */
+    private void processInput() {
+        readBuffer.flip();
+        boolean complete;
+        try {
+            complete = parser.parse(readBuffer);
+            if (complete && parser.expectsContinue())
+                write(ByteBuffer.wrap(CONTINUE));
+            compactReadBuffer();
+            if (!complete && readBuffer != null && !readBuffer.hasRemaining())
+                parser.overflow();
+        } catch (HttpParseException e) {
+            fail(e.getStatus(), e.getMessage());
+            return;
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (complete)
+            dispatch();
+    }
+
+    /**
+     * Passes what is in the read buffer on to the body of the request being handled. The buffer is in fill mode
+     * before and after. A malformed body fails the handler's reads and ends the connection after the response.
+     */
+    private void processBody() {
+        if (readBuffer != null) {
+            readBuffer.flip();
+            try {
+                boolean complete = parser.parseBody(readBuffer, body);
+                compactReadBuffer();
+                if (complete) {
+                    body.finish();
+                    body = null;
+                    parser.reset();
+                    return;
+                }
+                if (readBuffer != null && !readBuffer.hasRemaining())
+                    parser.overflow();
+            } catch (HttpParseException e) {
+                failBody(new IOException(e.getMessage()));
+                return;
+            }
+        }
+        // Unless the buffered data only waits for the handler, nothing more of the body is coming
+        if (inputClosed && (readBuffer == null || !parser.isInData()))
+            failBody(new EOFException("Connection closed before the request body was complete"));
+    }
+
+    /**
+     * Nothing after a broken body can be parsed, so the connection stops reading and ends with the response.
+     */
+    private void failBody(IOException e) {
+        body.fail(e);
+        body = null;
+        inputClosed = true;
+        if (readBuffer != null) {
+            loop.getBufferPool().release(readBuffer);
+            readBuffer = null;
+        }
+    }
+
+    /**
+     * Called by the thread reading the body once it has made room in a full body stream.
+     */
+    private void bodyDrained() {
+        loop.execute(() -> {
+            if (body == null || closed)
+                return;
+            processBody();
+            updateReadInterest();
+        });
+    }
+
+    /**
+     * Hands what is in the read buffer to the upgraded protocol. The buffer is in fill mode before and after.
+     */
+    private void deliver() {
+        readBuffer.flip();
+        protocol.onRead(readBuffer);
+        if (readBuffer != null)
+            compactReadBuffer();
+    }
+
+    private void compactReadBuffer() {
+        if (readBuffer.hasRemaining()) {
+            readBuffer.compact();
+            return;
+        }
+        loop.getBufferPool().release(readBuffer);
+        readBuffer = null;
+    }
+
+    private void dispatch() {
+        int maxRequests = engine.getOptions().getMaxRequestsPerConnection();
+        boolean keepAlive = parser.isKeepAlive()
+                && (maxRequests <= 0 || ++requestCount < maxRequests);
+        RequestBodyStream requestBody = parser.hasBody()
+                ? new RequestBodyStream(parser.getContentLength(), this::bodyDrained) : null;
+        NioHttpExchange exchange;
+        try {
+            exchange = new NioHttpExchange(this, parser, requestBody, keepAlive);
+        } catch (URISyntaxException e) {
+            fail(400, "Malformed request target");
+            return;
+        }
+        dispatched = true;
+        if (requestBody == null) {
+            parser.reset();
+        } else {
+            body = requestBody;
+            processBody();
+        }
+        updateReadInterest();
+        if (!engine.dispatch(exchange))
+            fail(503, "Server overloaded");
+    }
+
+    /**
+     * Called by the exchange once its response has been written completely.
+     */
+    void responseComplete(boolean keepAlive) {
+        loop.execute(() -> {
+            if (closed)
+                return;
+            if (body != null) {
+                // The handler left part of the body unread, and the rest of it would be taken for the next request
+                closeWhenFlushed();
+                return;
+            }
+            if (upgrade != null) {
+                startProtocol();
+                return;
+            }
+            if (!keepAlive) {
+                closeWhenFlushed();
+                return;
+            }
+            dispatched = false;
+            lastActive = System.nanoTime();
+            if (readBuffer != null)
+                processInput();
+            if (dispatched || closed)
+                return;
+            if (inputClosed)
+                closeWhenFlushed();
+            else
+                updateReadInterest();
+        });
+    }
+
+    /**
+     * Makes the handler receive everything after the current request. Takes effect once the response is complete.
+     */
+    RawConnection upgrade(RawConnection.Handler handler) {
+        this.upgrade = handler;
+        return new Upgraded();
+    }
+
+    private void startProtocol() {
+        protocol = upgrade;
+        dispatched = false;
+        if (readBuffer != null)
+            deliver();
+        if (closed)
+            return;
+        if (inputClosed)
+            closeWhenFlushed();
+        else
+            updateReadInterest();
+    }
+
+    /**
+     * Reads while there is room in the buffer, also ahead of the request being handled.
+     */
+    private void updateReadInterest() {
+        if (!inputClosed && !readingSuspended && (readBuffer == null || readBuffer.hasRemaining()))
+            key.interestOpsOr(SelectionKey.OP_READ);
+        else
+            key.interestOpsAnd(~SelectionKey.OP_READ);
+    }
+
+    /**
+     * Closes the connection if no request is being handled or written and none has arrived for the timeout.
+     */
+    void closeIfIdle(long now, long timeout) {
+        if (dispatched || closed || protocol != null || now - lastActive < timeout)
+            return;
+        synchronized (writeLock) {
+            if (!pending.isEmpty())
+                return;
+        }
+        close();
+    }
+
+    /**
+     * Answers with a plain error and closes the connection. Runs on the event loop.
+     */
+    private void fail(int status, String message) {
+        dispatched = true;
+        if (key.isValid())
+            key.interestOpsAnd(~SelectionKey.OP_READ);
+        byte[] body = message.getBytes(StandardCharsets.ISO_8859_1);
+        String head = "HTTP/1.1 " + status + " " + NioHttpExchange.reasonPhrase(status) + "\r\n"
+                + "Date: " + HttpDate.now() + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        try {
+            write(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)), ByteBuffer.wrap(body));
+            closeWhenFlushed();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Writes the buffers in order. Whatever the socket does not take right away is copied and written by the
+     * event loop when it becomes writable; a caller other than the event loop is blocked while too much is queued.
+     */
+    void write(ByteBuffer... sources) throws IOException {
+        write(true, sources);
+    }
+
+    /**
+     * Writes like {@link #write(ByteBuffer...)} unless too much is queued already, in which case nothing is written.
+     */
+    boolean offer(ByteBuffer... sources) throws IOException {
+        return write(false, sources);
+    }
+
+    private boolean write(boolean wait, ByteBuffer... sources) throws IOException {
+        synchronized (writeLock) {
+            if (closed)
+                throw new IOException("Connection closed");
+            if (!wait && pendingBytes > HIGH_WATER_MARK)
+                return false;
+            long remaining = 0;
+            for (ByteBuffer source : sources)
+                remaining += source.remaining();
+            try {
+                while (pending.isEmpty() && remaining > 0) {
+                    long written = channel.write(sources);
+                    if (written == 0)
+                        break;
+                    remaining -= written;
+                }
+            } catch (IOException e) {
+                closeAsync();
+                throw e;
+            }
+            if (remaining == 0)
+                return true;
+            boolean idle = pending.isEmpty();
+            for (ByteBuffer source : sources) {
+                if (!source.hasRemaining())
+                    continue;
+                ByteBuffer copy = ByteBuffer.allocate(source.remaining());
+                copy.put(source).flip();
+                pending.add(copy);
+            }
+            pendingBytes += remaining;
+            if (idle) {
+                key.interestOpsOr(SelectionKey.OP_WRITE);
+                if (!loop.inEventLoop())
+                    loop.wakeup();
+            }
+            if (!wait || loop.inEventLoop())
+                return true;
+            try {
+                while (pendingBytes > HIGH_WATER_MARK && !closed)
+                    writeLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the client to read");
+            }
+            if (closed)
+                throw new IOException("Connection closed");
+            return true;
+        }
+    }
+
+    /**
+     * Sends a file region with {@link FileChannel#transferTo}, waiting for the socket whenever it is full.
+     * Must not be called from the event loop.
+     */
+    void transfer(FileChannel file, long position, long count) throws IOException {
+        synchronized (writeLock) {
+            try {
+                while (count > 0) {
+                    if (closed)
+                        throw new IOException("Connection closed");
+                    if (pending.isEmpty()) {
+                        long written = file.transferTo(position, count, channel);
+                        if (written > 0) {
+                            position += written;
+                            count -= written;
+                            continue;
+                        }
+                        if (position >= file.size())
+                            throw new EOFException("File ended before all bytes were sent");
+                    }
+                    key.interestOpsOr(SelectionKey.OP_WRITE);
+                    loop.wakeup();
+                    writeLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the client to read");
+            } catch (IOException e) {
+                closeAsync();
+                throw e;
+            }
+        }
+    }
+
+    void onWritable() throws IOException {
+        synchronized (writeLock) {
+            while (!pending.isEmpty()) {
+                ByteBuffer buffer = pending.peek();
+                pendingBytes -= channel.write(buffer);
+                if (buffer.hasRemaining())
+                    break;
+                pending.poll();
+            }
+            if (pendingBytes <= LOW_WATER_MARK)
+                writeLock.notifyAll();
+            if (!pending.isEmpty())
+                return;
+            key.interestOpsAnd(~SelectionKey.OP_WRITE);
+            if (!closeWhenFlushed)
+                return;
+        }
+        close();
+    }
+
+    private void closeWhenFlushed() {
+        synchronized (writeLock) {
+            if (!pending.isEmpty()) {
+                closeWhenFlushed = true;
+                return;
+            }
+        }
+        close();
+    }
+
+    /**
+     * Runs the listener when the connection closes, or right away if it already has.
+     */
+    void addCloseListener(Runnable listener) {
+        synchronized (writeLock) {
+            if (!closed) {
+                if (closeListeners == null)
+                    closeListeners = new ArrayList<>(1);
+                closeListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    void closeAsync() {
+        loop.execute(this::close);
+    }
+
+    /**
+     * Closes the socket and releases the buffers. Runs on the event loop.
+     */
+    void close() {
+        if (closed)
+            return;
+        List<Runnable> listeners;
+        synchronized (writeLock) {
+            closed = true;
+            pending.clear();
+            pendingBytes = 0;
+            writeLock.notifyAll();
+            listeners = closeListeners;
+            closeListeners = null;
+        }
+        if (key != null)
+            key.cancel();
+        EventLoop.closeQuietly(channel);
+        if (readBuffer != null) {
+            loop.getBufferPool().release(readBuffer);
+            readBuffer = null;
+        }
+        if (body != null) {
+            body.fail(new IOException("Connection closed"));
+            body = null;
+        }
+        engine.connectionClosed();
+        if (listeners != null)
+            for (Runnable listener : listeners)
+                listener.run();
+        if (protocol != null)
+            protocol.onClosed();
+    }
+
+    /**
+     * The connection as seen by the protocol it was upgraded to.
+     */
+    private final class Upgraded implements RawConnection {
+
+        @Override
+        public void write(ByteBuffer... data) throws IOException {
+            NioConnection.this.write(data);
+        }
+
+        @Override
+        public boolean offer(ByteBuffer... data) throws IOException {
+            return NioConnection.this.offer(data);
+        }
+
+        @Override
+        public void setReading(boolean reading) {
+            // Applied right away on the loop, so a pause and the resume that follows cannot swap places
+            if (loop.inEventLoop()) {
+                applyReading(reading);
+                return;
+            }
+            loop.execute(() -> applyReading(reading));
+        }
+
+        private void applyReading(boolean reading) {
+            readingSuspended = !reading;
+            if (!closed && protocol != null)
+                updateReadInterest();
+        }
+
+        @Override
+        public void close() {
+            loop.execute(NioConnection.this::closeWhenFlushed);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return remoteAddress;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.github.ozanaaslan.lwjwl.server.ConnectionEvents;
+import com.github.ozanaaslan.lwjwl.server.FileTransfer;
+import com.github.ozanaaslan.lwjwl.server.ProtocolUpgrade;
+import com.github.ozanaaslan.lwjwl.server.RawConnection;
+import com.github.ozanaaslan.lwjwl.server.ResponseOffer;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An exchange of the {@link NioServerEngine}, so handlers written against {@code com.sun.net.httpserver}
+ * run unchanged. The request body streams in while the handler reads it. The response follows the same
+ * rules as the JDK server: a length of 0 sends a chunked body, -1 sends none, and closing the exchange
+ * finishes the response without closing the connection.
+ * <p>
+ * There is no {@link HttpContext}; {@link #getHttpContext()} returns null.
+ */
+final class NioHttpExchange extends HttpExchange implements FileTransfer, ConnectionEvents, ProtocolUpgrade, ResponseOffer {
+
+    private final NioConnection connection;
+    private final String method;
+    private final URI requestURI;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final ResponseStream responseStream = new ResponseStream();
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private Map<String, Object> attributes;
+    private int responseCode = -1;
+    private boolean keepAlive;
+
+    /**
+     * @param body the body as it arrives, or null if the request has none
+     */
+    NioHttpExchange(NioConnection connection, HttpRequestParser request, InputStream body, boolean keepAlive)
+            throws URISyntaxException {
+        this.connection = connection;
+        this.method = request.getMethod();
+        this.requestURI = new URI(request.getTarget());
+        this.protocol = request.getProtocol();
+        this.requestHeaders = request.getHeaders();
+        this.requestBody = body != null ? body : InputStream.nullInputStream();
+        this.responseBody = responseStream;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return requestURI;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return null;
+    }
+
+    /**
+     * Discards what is left of the request body, like the JDK server, and completes the response.
+     */
+    @Override
+    public void close() {
+        try {
+            requestBody.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            responseBody.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int code, long length) throws IOException {
+        if (responseCode != -1)
+            throw new IOException("Response headers have already been sent");
+        responseCode = code;
+        boolean http10 = "HTTP/1.0".equals(protocol);
+        // Same rules as the JDK server: HEAD and 304 responses carry whatever length headers the handler set
+        boolean noContentLength = false;
+        if (code < 200 || code == 204 || code == 304) {
+            length = -1;
+            noContentLength = code != 304;
+        }
+        long bodyLength;
+        if ("HEAD".equals(method) || code == 304) {
+            bodyLength = 0;
+        } else if (length == 0) {
+            if (http10) {
+                keepAlive = false;
+                bodyLength = ResponseStream.UNTIL_CLOSE;
+            } else {
+                responseHeaders.set("Transfer-Encoding", "chunked");
+                bodyLength = ResponseStream.CHUNKED;
+            }
+        } else {
+            bodyLength = Math.max(length, 0);
+            if (!noContentLength)
+                responseHeaders.set("Content-Length", Long.toString(bodyLength));
+        }
+        String connectionHeader = responseHeaders.getFirst("Connection");
+        if (connectionHeader != null && connectionHeader.equalsIgnoreCase("close"))
+            keepAlive = false;
+        if (!keepAlive)
+            responseHeaders.set("Connection", "close");
+        else if (http10)
+            responseHeaders.set("Connection", "keep-alive");
+        if (!responseHeaders.containsKey("Date"))
+            responseHeaders.set("Date", HttpDate.now());
+        responseStream.begin(code, responseHeaders, bodyLength);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes == null ? null : attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (attributes == null)
+            attributes = new HashMap<>();
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null)
+            requestBody = i;
+        if (o != null)
+            responseBody = o;
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Sends the file region with {@link FileChannel#transferTo} straight into the socket, so the kernel
+     * copies it without it passing through the heap. Only bypassed by streams set with {@link #setStreams}.
+     */
+    @Override
+    public void transferFrom(FileChannel file, long position, long count) throws IOException {
+        if (responseBody != responseStream) {
+            WritableByteChannel out = Channels.newChannel(responseBody);
+            for (long end = position + count; position < end; ) {
+                long written = file.transferTo(position, end - position, out);
+                if (written <= 0)
+                    throw new EOFException("File ended before " + end);
+                position += written;
+            }
+            return;
+        }
+        responseStream.transferFrom(file, position, count);
+    }
+
+    /**
+     * Refuses when the connection has more than its high water mark queued. Streams set with
+     * {@link #setStreams} cannot refuse, so they are written to as usual.
+     */
+    @Override
+    public boolean offer(byte[] data) throws IOException {
+        if (responseBody != responseStream) {
+            responseBody.write(data);
+            responseBody.flush();
+            return true;
+        }
+        return responseStream.offer(data);
+    }
+
+    @Override
+    public RawConnection upgrade(RawConnection.Handler handler) throws IOException {
+        // The connection outlives this exchange whatever the keep-alive limits say
+        keepAlive = true;
+        RawConnection upgraded = connection.upgrade(handler);
+        sendResponseHeaders(101, -1);
+        responseBody.flush();
+        return upgraded;
+    }
+
+    @Override
+    public void onConnectionClosed(Runnable listener) {
+        connection.addCloseListener(listener);
+    }
+
+    /**
+     * Drops the connection, e.g. when the handler failed halfway through a response.
+     */
+    void abort() {
+        responseStream.closed = true;
+        connection.closeAsync();
+    }
+
+    static String reasonPhrase(int code) {
+        switch (code) {
+            case 100: return "Continue";
+            case 101: return "Switching Protocols";
+            case 200: return "OK";
+            case 201: return "Created";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 303: return "See Other";
+            case 304: return "Not Modified";
+            case 307: return "Temporary Redirect";
+            case 308: return "Permanent Redirect";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 408: return "Request Timeout";
+            case 409: return "Conflict";
+            case 411: return "Length Required";
+            case 413: return "Payload Too Large";
+            case 414: return "URI Too Long";
+            case 415: return "Unsupported Media Type";
+            case 416: return "Range Not Satisfiable";
+            case 426: return "Upgrade Required";
+            case 429: return "Too Many Requests";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 502: return "Bad Gateway";
+            case 503: return "Service Unavailable";
+            case 505: return "HTTP Version Not Supported";
+            default: return "Status";
+        }
+    }
+
+    /**
+     * Buffers the response and writes it to the connection. Status line, headers and a small body leave
+     * in a single write. Chunks are framed in place: room for the size line is kept in front of the data.
+     */
+    private final class ResponseStream extends OutputStream {
+
+        static final long CHUNKED = -1;
+        static final long UNTIL_CLOSE = -2;
+        private static final int BUFFER_SIZE = 8192;
+        private static final int CHUNK_HEADER = 10;
+        private static final int CHUNK_TRAILER = 2;
+
+        private byte[] buffer;
+        private int count;
+        private int chunkStart = -1;
+        private long remaining;
+        private boolean chunked;
+        private boolean untilClose;
+        private boolean started;
+        private boolean closed;
+        private boolean refused;
+
+        void begin(int code, Headers headers, long length) {
+            buffer = new byte[length > 0 && length < BUFFER_SIZE - 512 ? (int) length + 512 : BUFFER_SIZE];
+            append(protocol.equals("HTTP/1.0") ? "HTTP/1.0 " : "HTTP/1.1 ");
+            append(Integer.toString(code));
+            append(" ");
+            append(reasonPhrase(code));
+            append("\r\n");
+            for (Map.Entry<String, List<String>> header : headers.entrySet())
+                for (String value : header.getValue()) {
+                    append(header.getKey());
+                    append(": ");
+                    append(value);
+                    append("\r\n");
+                }
+            append("\r\n");
+            chunked = length == CHUNKED;
+            untilClose = length == UNTIL_CLOSE;
+            remaining = length > 0 ? length : 0;
+            started = true;
+            if (chunked)
+                startChunk();
+        }
+
+        private void append(String s) {
+            int length = s.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++)
+                buffer[count++] = (byte) s.charAt(i);
+        }
+
+        private void ensureCapacity(int length) {
+            if (count + length > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length + CHUNK_HEADER + CHUNK_TRAILER));
+        }
+
+        private void startChunk() {
+            chunkStart = count;
+            ensureCapacity(CHUNK_HEADER);
+            count += CHUNK_HEADER;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed)
+                throw new IOException("Response has already been completed");
+            if (!started)
+                throw new IOException("Response headers have not been sent");
+            if (len == 0)
+                return;
+            if (chunked) {
+                writeChunked(b, off, len);
+                return;
+            }
+            if (!untilClose) {
+                if (len > remaining) {
+                    if (remaining == 0 && "HEAD".equals(method))
+                        return;
+                    throw new IOException("Response body exceeds the announced Content-Length");
+                }
+                remaining -= len;
+            }
+            if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            send(ByteBuffer.wrap(buffer, 0, count), ByteBuffer.wrap(b, off, len));
+            count = 0;
+        }
+
+        private void writeChunked(byte[] b, int off, int len) throws IOException {
+            if (count + len + CHUNK_TRAILER <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            int start = frameChunk();
+            byte[] size = chunkSize(len);
+            send(ByteBuffer.wrap(buffer, start, count - start), ByteBuffer.wrap(size),
+                    ByteBuffer.wrap(b, off, len), ByteBuffer.wrap(CRLF));
+            count = 0;
+            startChunk();
+        }
+
+        /**
+         * Writes the size line of the current chunk into the room kept for it and terminates the chunk.
+         * Anything before the chunk (the response head) is moved up against the size line.
+         *
+         * @return where the bytes to send start in the buffer
+         */
+        private int frameChunk() {
+            int dataStart = chunkStart + CHUNK_HEADER;
+            int dataLength = count - dataStart;
+            if (dataLength == 0) {
+                count = chunkStart;
+                return 0;
+            }
+            byte[] size = chunkSize(dataLength);
+            int sizeStart = dataStart - size.length;
+            System.arraycopy(size, 0, buffer, sizeStart, size.length);
+            buffer[count++] = '\r';
+            buffer[count++] = '\n';
+            if (chunkStart > 0)
+                System.arraycopy(buffer, 0, buffer, sizeStart - chunkStart, chunkStart);
+            return sizeStart - chunkStart;
+        }
+
+        void transferFrom(FileChannel file, long position, long length) throws IOException {
+            if (closed)
+                throw new IOException("Response has already been completed");
+            if (!started)
+                throw new IOException("Response headers have not been sent");
+            if (length == 0 || (remaining == 0 && "HEAD".equals(method)))
+                return;
+            if (chunked) {
+                if (length > Integer.MAX_VALUE)
+                    throw new IOException("Chunk too large");
+                int start = frameChunk();
+                send(ByteBuffer.wrap(buffer, start, count - start), ByteBuffer.wrap(chunkSize((int) length)));
+                count = 0;
+                connection.transfer(file, position, length);
+                send(ByteBuffer.wrap(CRLF));
+                startChunk();
+                return;
+            }
+            if (!untilClose) {
+                if (length > remaining)
+                    throw new IOException("Response body exceeds the announced Content-Length");
+                remaining -= length;
+            }
+            flush();
+            connection.transfer(file, position, length);
+        }
+
+        /**
+         * Sends the bytes as a chunk of their own, or as they are. Refusing leaves the stream as it was.
+         */
+        boolean offer(byte[] b) throws IOException {
+            if (closed)
+                throw new IOException("Response has already been completed");
+            if (!started)
+                throw new IOException("Response headers have not been sent");
+            if (b.length == 0 || (remaining == 0 && "HEAD".equals(method)))
+                return true;
+            if (!chunked && !untilClose && b.length > remaining)
+                throw new IOException("Response body exceeds the announced Content-Length");
+            // Whatever earlier writes left in the buffer has to go first, offered or not
+            flush();
+            boolean sent = chunked
+                    ? connection.offer(ByteBuffer.wrap(chunkSize(b.length)), ByteBuffer.wrap(b), ByteBuffer.wrap(CRLF))
+                    : connection.offer(ByteBuffer.wrap(b));
+            refused = !sent;
+            if (sent && !chunked && !untilClose)
+                remaining -= b.length;
+            return sent;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!started || closed)
+                return;
+            if (chunked) {
+                int start = frameChunk();
+                if (count > start)
+                    send(ByteBuffer.wrap(buffer, start, count - start));
+                count = 0;
+                startChunk();
+                return;
+            }
+            if (count > 0)
+                send(ByteBuffer.wrap(buffer, 0, count));
+            count = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            if (!started) {
+                closed = true;
+                connection.closeAsync();
+                return;
+            }
+            if (refused) {
+                // Finishing the body would mean waiting for the client that fell behind
+                closed = true;
+                connection.closeAsync();
+                return;
+            }
+            if (chunked) {
+                int start = frameChunk();
+                ensureCapacity(LAST_CHUNK.length);
+                System.arraycopy(LAST_CHUNK, 0, buffer, count, LAST_CHUNK.length);
+                count += LAST_CHUNK.length;
+                send(ByteBuffer.wrap(buffer, start, count - start));
+                count = 0;
+            } else {
+                flush();
+            }
+            closed = true;
+            if (remaining > 0) {
+                // The handler sent less than it announced; the client can only tell by the connection closing
+                connection.closeAsync();
+                return;
+            }
+            connection.responseComplete(keepAlive && !untilClose);
+        }
+
+        private void send(ByteBuffer... buffers) throws IOException {
+            connection.write(buffers);
+        }
+    }
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+    private static byte[] chunkSize(int length) {
+        String hex = Integer.toHexString(length);
+        byte[] size = new byte[hex.length() + 2];
+        for (int i = 0; i < hex.length(); i++)
+            size[i] = (byte) hex.charAt(i);
+        size[hex.length()] = '\r';
+        size[hex.length() + 1] = '\n';
+        return size;
+    }
+}
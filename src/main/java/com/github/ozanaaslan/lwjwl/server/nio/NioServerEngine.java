@@ -0,0 +1,133 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import com.github.ozanaaslan.lwjwl.server.ServerEngine;
+import com.github.ozanaaslan.lwjwl.server.ServerOptions;
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.sun.net.httpserver.HttpHandler;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+
+/**
+ * A server engine on {@code java.nio} selectors. One thread accepts connections and spreads them over a
+ * fixed set of {@link EventLoop}s, which read and parse requests without blocking. Complete requests are
+ * handed to the executor; handler threads write their responses straight to the socket.
+ */
+public class NioServerEngine implements ServerEngine {
+
+    private static final Log LOG = Log.get(NioServerEngine.class);
+    private static final int BACKLOG = 1024;
+
+    @Getter
+    private final ServerOptions options;
+    @Getter(AccessLevel.PACKAGE)
+    private final LongSupplier maxBodySize;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] loops;
+    private Thread acceptor;
+    private HttpHandler handler;
+    private Executor executor;
+    private Semaphore connectionPermits;
+    private volatile boolean running;
+
+    public NioServerEngine(ServerOptions options, LongSupplier maxBodySize) {
+        this.options = options;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public void start(InetSocketAddress address, HttpHandler handler, Executor executor) throws IOException {
+        this.handler = handler;
+        this.executor = executor;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.serverChannel.bind(address, BACKLOG);
+        if (options.getMaxConnections() > 0)
+            this.connectionPermits = new Semaphore(options.getMaxConnections());
+        this.loops = new EventLoop[Math.max(1, options.getEventLoops())];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(this, "lwjwl-nio-" + i);
+            loops[i].start();
+        }
+        this.running = true;
+        this.acceptor = new Thread(this::accept, "lwjwl-nio-acceptor");
+        this.acceptor.start();
+    }
+
+    private void accept() {
+        int next = 0;
+        while (running) {
+            try {
+                // At the limit, clients queue up in the backlog instead of being accepted and dropped
+                if (connectionPermits != null)
+                    connectionPermits.acquire();
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                } catch (IOException e) {
+                    connectionClosed();
+                    throw e;
+                }
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException | InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (running)
+                    LOG.warn("Could not accept connection", e);
+            }
+        }
+    }
+
+    /**
+     * Hands a parsed request to the executor.
+     *
+     * @return false if the executor rejected it
+     */
+    boolean dispatch(NioHttpExchange exchange) {
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.handle(exchange);
+                } catch (Throwable t) {
+                    LOG.warn("Handler failed for " + exchange.getRequestURI(), t);
+                    exchange.abort();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    void connectionClosed() {
+        if (connectionPermits != null)
+            connectionPermits.release();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (acceptor != null)
+            acceptor.interrupt();
+        try {
+            if (serverChannel != null)
+                serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        if (loops != null)
+            for (EventLoop loop : loops)
+                loop.shutdown();
+    }
+}
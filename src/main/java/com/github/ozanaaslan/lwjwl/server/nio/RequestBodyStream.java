@@ -0,0 +1,137 @@
+package com.github.ozanaaslan.lwjwl.server.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The body of a request while it arrives. The event loop feeds it with {@link #offer} and the handler thread
+ * reads it. It holds little, so a handler that reads slower than the client sends fills it up; the connection
+ * then stops reading and TCP flow control holds the client back until the handler catches up.
+ * <p>
+ * Closing the stream discards the rest of the body as it arrives.
+ */
+final class RequestBodyStream extends InputStream {
+
+    private static final int MAX_CAPACITY = 64 * 1024;
+
+    private final byte[] buffer;
+    private final Runnable drained;
+    private int start;
+    private int count;
+    private boolean full;
+    private boolean finished;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * @param contentLength the declared length of the body, or -1 if it is chunked
+     * @param drained       called by the reading thread when a full stream has room again
+     */
+    RequestBodyStream(long contentLength, Runnable drained) {
+        this.buffer = new byte[(int) (contentLength < 0 ? MAX_CAPACITY : Math.min(contentLength, MAX_CAPACITY))];
+        this.drained = drained;
+    }
+
+    /**
+     * Takes up to {@code max} bytes from the source, as many as there is room for. Runs on the event loop.
+     *
+     * @return the number of bytes taken
+     */
+    synchronized int offer(ByteBuffer source, int max) {
+        if (closed) {
+            source.position(source.position() + max);
+            return max;
+        }
+        int taken = 0;
+        while (taken < max && count < buffer.length) {
+            int end = (start + count) % buffer.length;
+            int n = Math.min(max - taken, (end < start ? start : buffer.length) - end);
+            source.get(buffer, end, n);
+            count += n;
+            taken += n;
+        }
+        full = count == buffer.length;
+        if (taken > 0)
+            notifyAll();
+        return taken;
+    }
+
+    /**
+     * Marks the end of the body. Runs on the event loop.
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Makes reads fail once what has arrived is read, e.g. when the client went away halfway through the body.
+     */
+    synchronized void fail(IOException e) {
+        if (!finished && failure == null)
+            failure = e;
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        boolean resume;
+        int n;
+        synchronized (this) {
+            try {
+                while (count == 0 && !finished && !closed && failure == null)
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the request body");
+            }
+            if (closed)
+                throw new IOException("Stream closed");
+            if (count == 0) {
+                if (failure != null)
+                    throw failure;
+                return -1;
+            }
+            n = Math.min(len, Math.min(count, buffer.length - start));
+            System.arraycopy(buffer, start, b, off, n);
+            start = (start + n) % buffer.length;
+            count -= n;
+            resume = full;
+            full = false;
+        }
+        if (resume)
+            drained.run();
+        return n;
+    }
+
+    @Override
+    public synchronized int available() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        boolean resume;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            count = 0;
+            resume = full;
+            full = false;
+            notifyAll();
+        }
+        if (resume)
+            drained.run();
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Readers by target type. Binding plans for classes are built once per class and cached;
+ * generic types such as {@code List<Person>} are cached by their {@link Type}.
+ */
+public final class JsonDeserializers {
+
+    private static final ClassValue<ValueReader> READERS = new ClassValue<>() {
+        @Override
+        protected ValueReader computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
+    private static final Map<Type, ValueReader> GENERIC_READERS = new ConcurrentHashMap<>();
+
+    private JsonDeserializers() {
+    }
+
+    public static ValueReader of(Type type) {
+        if (type instanceof Class)
+            return READERS.get((Class<?>) type);
+        ValueReader reader = GENERIC_READERS.get(type);
+        if (reader == null) {
+            reader = createGeneric(type);
+            GENERIC_READERS.putIfAbsent(type, reader);
+        }
+        return reader;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T read(JsonReader reader, Class<T> type) {
+        Object value = of(type).read(reader);
+        return type.isPrimitive() ? (T) value : type.cast(value);
+    }
+
+    /**
+     * Resolves the reader of a class only when a value is read, so types can refer to themselves.
+     */
+    static ValueReader deferred(Type type) {
+        if (!(type instanceof Class))
+            return of(type);
+        Class<?> clazz = (Class<?>) type;
+        return reader -> READERS.get(clazz).read(reader);
+    }
+
+    private static ValueReader create(Class<?> type) {
+        if (type == String.class)
+            return nullable(JsonReader::nextString);
+        if (type == int.class || type == Integer.class)
+            return nullable(JsonReader::nextInt);
+        if (type == long.class || type == Long.class)
+            return nullable(JsonReader::nextLong);
+        if (type == double.class || type == Double.class)
+            return nullable(JsonReader::nextDouble);
+        if (type == float.class || type == Float.class)
+            return nullable(reader -> (float) reader.nextDouble());
+        if (type == boolean.class || type == Boolean.class)
+            return nullable(JsonReader::nextBoolean);
+        if (type == short.class || type == Short.class)
+            return nullable(reader -> (short) nextInt(reader, Short.MIN_VALUE, Short.MAX_VALUE));
+        if (type == byte.class || type == Byte.class)
+            return nullable(reader -> (byte) nextInt(reader, Byte.MIN_VALUE, Byte.MAX_VALUE));
+        if (type == char.class || type == Character.class)
+            return nullable(reader -> {
+                String value = reader.nextString();
+                return value.isEmpty() ? '\0' : value.charAt(0);
+            });
+        if (type == BigDecimal.class)
+            return parsed(type, BigDecimal::new);
+        if (type == BigInteger.class)
+            return parsed(type, BigInteger::new);
+        if (type == UUID.class)
+            return parsed(type, UUID::fromString);
+        if (type.isEnum())
+            return enumReader(type);
+        if (type == Object.class)
+            return JsonDeserializers::readNatural;
+        if (type.isArray())
+            return arrayReader(type.getComponentType());
+        if (Collection.class.isAssignableFrom(type))
+            return collectionReader(type, Object.class);
+        if (Map.class.isAssignableFrom(type))
+            return mapReader(type, String.class, Object.class);
+        if (type.isRecord())
+            return RecordReader.of(type);
+        return ObjectReader.of(type);
+    }
+
+    private static ValueReader createGeneric(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw))
+                return collectionReader(raw, arguments[0]);
+            if (Map.class.isAssignableFrom(raw))
+                return mapReader(raw, arguments[0], arguments[1]);
+            return of(raw);
+        }
+        if (type instanceof GenericArrayType)
+            return arrayReader(rawType(((GenericArrayType) type).getGenericComponentType()),
+                    ((GenericArrayType) type).getGenericComponentType());
+        return of(rawType(type));
+    }
+
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return rawType(((ParameterizedType) type).getRawType());
+        if (type instanceof GenericArrayType)
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        if (type instanceof WildcardType)
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable)
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        return Object.class;
+    }
+
+    private static ValueReader nullable(ValueReader reader) {
+        return in -> {
+            if (in.peek() == JsonReader.Token.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return reader.read(in);
+        };
+    }
+
+    private static int nextInt(JsonReader reader, int min, int max) {
+        int value = reader.nextInt();
+        if (value < min || value > max)
+            throw reader.error("Integer out of range: " + value);
+        return value;
+    }
+
+    /**
+     * Reads a value from its text, reporting text the parser rejects as malformed input.
+     */
+    private static ValueReader parsed(Class<?> type, Function<String, Object> parser) {
+        return nullable(reader -> {
+            String text = reader.nextString();
+            try {
+                return parser.apply(text);
+            } catch (IllegalArgumentException e) {
+                throw reader.error("Invalid " + type.getSimpleName() + ": " + text);
+            }
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueReader enumReader(Class<?> type) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants())
+            constants.put(((Enum) constant).name(), constant);
+        return nullable(reader -> {
+            String name = reader.nextString();
+            Object constant = constants.get(name);
+            if (constant == null)
+                throw new JsonException("No constant " + name + " in " + type.getName());
+            return constant;
+        });
+    }
+
+    private static ValueReader arrayReader(Class<?> component) {
+        return arrayReader(component, component);
+    }
+
+    private static ValueReader arrayReader(Class<?> component, Type genericComponent) {
+        ValueReader element = deferred(genericComponent);
+        return nullable(reader -> {
+            List<Object> values = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext())
+                values.add(element.read(reader));
+            reader.endArray();
+            Object array = Array.newInstance(component, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                if (value != null || !component.isPrimitive())
+                    Array.set(array, i, value);
+            }
+            return array;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueReader collectionReader(Class<?> type, Type elementType) {
+        ValueReader element = deferred(elementType);
+        Supplier<Collection<Object>> factory = collectionFactory(type);
+        return nullable(reader -> {
+            Collection<Object> collection = factory.get();
+            reader.beginArray();
+            while (reader.hasNext())
+                collection.add(element.read(reader));
+            reader.endArray();
+            return collection;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (!type.isInterface() && !java.lang.reflect.Modifier.isAbstract(type.getModifiers())) {
+            return () -> {
+                try {
+                    return (Collection<Object>) type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new JsonException("Cannot create " + type.getName(), e);
+                }
+            };
+        }
+        if (SortedSet.class.isAssignableFrom(type))
+            return TreeSet::new;
+        if (Set.class.isAssignableFrom(type))
+            return LinkedHashSet::new;
+        if (Queue.class.isAssignableFrom(type))
+            return ArrayDeque::new;
+        return ArrayList::new;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueReader mapReader(Class<?> type, Type keyType, Type valueType) {
+        ValueReader value = deferred(valueType);
+        Class<?> keyClass = rawType(keyType);
+        Supplier<Map<Object, Object>> factory;
+        if (!type.isInterface() && !java.lang.reflect.Modifier.isAbstract(type.getModifiers())) {
+            factory = () -> {
+                try {
+                    return (Map<Object, Object>) type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new JsonException("Cannot create " + type.getName(), e);
+                }
+            };
+        } else if (SortedMap.class.isAssignableFrom(type)) {
+            factory = TreeMap::new;
+        } else {
+            factory = LinkedHashMap::new;
+        }
+        return nullable(reader -> {
+            Map<Object, Object> map = factory.get();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                map.put(convertKey(name, keyClass), value.read(reader));
+            }
+            reader.endObject();
+            return map;
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convertKey(String name, Class<?> keyClass) {
+        if (keyClass == String.class || keyClass == Object.class)
+            return name;
+        try {
+            if (keyClass == Integer.class)
+                return Integer.valueOf(name);
+            if (keyClass == Long.class)
+                return Long.valueOf(name);
+            if (keyClass == UUID.class)
+                return UUID.fromString(name);
+            if (keyClass.isEnum())
+                return Enum.valueOf((Class) keyClass, name);
+        } catch (IllegalArgumentException e) {
+            throw new JsonException("Invalid " + keyClass.getSimpleName() + " map key: " + name);
+        }
+        throw new JsonException("Unsupported map key type " + keyClass.getName());
+    }
+
+    /**
+     * Reads a value without a target type: objects become maps, arrays lists,
+     * integral numbers longs and other numbers doubles.
+     */
+    static Object readNatural(JsonReader reader) {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext())
+                    map.put(reader.nextName(), readNatural(reader));
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext())
+                    list.add(readNatural(reader));
+                reader.endArray();
+                return list;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            case NUMBER:
+                String number = reader.nextString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException tooLarge) {
+                        return new BigInteger(number);
+                    }
+                }
+                return Double.parseDouble(number);
+            default:
+                return reader.nextString();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+/**
+ * Thrown when a document is malformed or cannot be bound to the requested type.
+ */
+public class JsonException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JsonException(String message) {
+        super(message);
+    }
+
+    public JsonException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
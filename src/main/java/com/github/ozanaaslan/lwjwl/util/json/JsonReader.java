@@ -0,0 +1,425 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull parser that reads UTF-8 JSON token by token from a stream through a fixed size buffer,
+ * so documents of any size can be consumed without being held in memory.
+ */
+public final class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /**
+     * Deepest nesting of arrays and objects accepted. Readers recurse per level, so without a bound a document
+     * of a few hundred kilobytes of brackets would overflow the stack.
+     */
+    private static final int MAX_DEPTH = 512;
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[32];
+    private int depth;
+    private Token peeked;
+    private boolean literal;
+
+    private final StringBuilder chars = new StringBuilder();
+
+    public JsonReader(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[8192];
+        this.stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public JsonReader(String json) {
+        this(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Token peek() {
+        if (peeked == null)
+            peeked = doPeek();
+        return peeked;
+    }
+
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * @return the next string, or the literal text of the next number
+     */
+    public String nextString() {
+        Token token = peek();
+        if (token == Token.NUMBER) {
+            peeked = null;
+            return readNumber();
+        }
+        expect(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() {
+        Token token = peek();
+        if (token == Token.STRING)
+            return Boolean.parseBoolean(nextString());
+        expect(Token.BOOLEAN);
+        return literal;
+    }
+
+    public void nextNull() {
+        expect(Token.NULL);
+    }
+
+    public long nextLong() {
+        String text = nextString();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            double value = parseDouble(text);
+            if (value != (long) value)
+                throw error("Expected an integer but was " + text);
+            return (long) value;
+        }
+    }
+
+    public int nextInt() {
+        long value = nextLong();
+        if (value != (int) value)
+            throw error("Integer out of range: " + value);
+        return (int) value;
+    }
+
+    public double nextDouble() {
+        return parseDouble(nextString());
+    }
+
+    /**
+     * Skips the next value, including everything nested inside it.
+     */
+    public void skipValue() {
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    level++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    level++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    level--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    level--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case END_DOCUMENT:
+                    throw error("Unexpected end of document");
+                default:
+                    nextValueText();
+            }
+        } while (level > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void nextValueText() {
+        Token token = peek();
+        if (token == Token.STRING || token == Token.NUMBER)
+            nextString();
+        else
+            peeked = null;
+    }
+
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected)
+            throw error("Expected " + expected + " but was " + token);
+        peeked = null;
+    }
+
+    private void push(int state) {
+        // The document itself takes the first slot
+        if (depth > MAX_DEPTH)
+            throw error("Document nested deeper than " + MAX_DEPTH + " levels");
+        if (depth == stack.length)
+            stack = Arrays.copyOf(stack, depth << 1);
+        stack[depth++] = state;
+    }
+
+    private Token doPeek() {
+        int state = stack[depth - 1];
+        int c;
+        switch (state) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']')
+                    return Token.END_ARRAY;
+                if (c == -1)
+                    throw error("Unexpected end of document");
+                position--;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']')
+                    return Token.END_ARRAY;
+                if (c != ',')
+                    throw error("Expected ',' or ']'");
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[depth - 1] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (c == '}')
+                    return Token.END_OBJECT;
+                if (state == NONEMPTY_OBJECT) {
+                    if (c != ',')
+                        throw error("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"')
+                    throw error("Expected a name");
+                return Token.NAME;
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':')
+                    throw error("Expected ':'");
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace() == -1)
+                    return Token.END_DOCUMENT;
+                throw error("Unexpected content after the document");
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+                expectLiteral("rue");
+                literal = true;
+                return Token.BOOLEAN;
+            case 'f':
+                expectLiteral("alse");
+                literal = false;
+                return Token.BOOLEAN;
+            case 'n':
+                expectLiteral("ull");
+                return Token.NULL;
+            case -1:
+                throw error("Unexpected end of document");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    position--;
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void expectLiteral(String rest) {
+        for (int i = 0; i < rest.length(); i++)
+            if (read() != rest.charAt(i))
+                throw error("Invalid literal");
+    }
+
+    private String readNumber() {
+        chars.setLength(0);
+        while (true) {
+            int c = read();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                chars.append((char) c);
+            } else {
+                if (c != -1)
+                    position--;
+                return chars.toString();
+            }
+        }
+    }
+
+    private String readString() {
+        chars.setLength(0);
+        while (true) {
+            if (position == limit && !fill())
+                throw error("Unterminated string");
+            int start = position;
+            while (position < limit) {
+                byte b = buffer[position];
+                if (b == '"' || b == '\\' || b < 0x20)
+                    break;
+                position++;
+            }
+            for (int i = start; i < position; i++)
+                chars.append((char) buffer[i]);
+            if (position == limit)
+                continue;
+            int c = buffer[position++] & 0xFF;
+            if (c == '"')
+                return chars.toString();
+            if (c == '\\')
+                readEscape();
+            else if (c >= 0x80)
+                readMultiByte(c);
+            else
+                throw error("Control character in string");
+        }
+    }
+
+    private void readEscape() {
+        int c = read();
+        switch (c) {
+            case '"': chars.append('"'); return;
+            case '\\': chars.append('\\'); return;
+            case '/': chars.append('/'); return;
+            case 'b': chars.append('\b'); return;
+            case 'f': chars.append('\f'); return;
+            case 'n': chars.append('\n'); return;
+            case 'r': chars.append('\r'); return;
+            case 't': chars.append('\t'); return;
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0)
+                        throw error("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                chars.append((char) value);
+                return;
+            default:
+                throw error("Invalid escape");
+        }
+    }
+
+    private void readMultiByte(int lead) {
+        int extra;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            codePoint = lead & 0x07;
+        } else {
+            chars.append('\uFFFD');
+            return;
+        }
+        for (int i = 0; i < extra; i++) {
+            int b = read();
+            if ((b & 0xC0) != 0x80) {
+                if (b != -1)
+                    position--;
+                chars.append('\uFFFD');
+                return;
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        chars.appendCodePoint(Character.isValidCodePoint(codePoint) ? codePoint : 0xFFFD);
+    }
+
+    private int nextNonWhitespace() {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                return c;
+        }
+    }
+
+    private int read() {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() {
+        try {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0)
+                return false;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private double parseDouble(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("Expected a number but was '" + text + "'");
+        }
+    }
+
+    JsonException error(String message) {
+        return new JsonException(message + " at byte " + (consumed + position));
+    }
+}
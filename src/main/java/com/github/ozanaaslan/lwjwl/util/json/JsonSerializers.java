@@ -0,0 +1,164 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Serializers by runtime class. Each one is built the first time its class is seen and cached,
+ * so serializing an object never reflects over its fields again.
+ */
+public final class JsonSerializers {
+
+    private static final ClassValue<ValueSerializer> SERIALIZERS = new ClassValue<>() {
+        @Override
+        protected ValueSerializer computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
+
+    private JsonSerializers() {
+    }
+
+    public static void write(Object value, JsonWriter out) {
+        if (value == null) {
+            out.writeNull();
+            return;
+        }
+        SERIALIZERS.get(value.getClass()).write(value, out);
+    }
+
+    public static ValueSerializer of(Class<?> type) {
+        return SERIALIZERS.get(type);
+    }
+
+    private static ValueSerializer create(Class<?> type) {
+        if (type == String.class)
+            return (value, out) -> out.writeString((String) value);
+        if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class)
+            return (value, out) -> out.writeLong(((Number) value).longValue());
+        if (type == Double.class)
+            return (value, out) -> out.writeDouble((Double) value);
+        if (type == Float.class)
+            return (value, out) -> out.writeFloat((Float) value);
+        if (type == BigDecimal.class || type == BigInteger.class || Number.class.isAssignableFrom(type))
+            return (value, out) -> out.writeAscii(value.toString());
+        if (type == Boolean.class)
+            return (value, out) -> out.writeBoolean((Boolean) value);
+        if (type == Character.class)
+            return (value, out) -> out.writeString(value.toString());
+        if (Enum.class.isAssignableFrom(type))
+            return (value, out) -> out.writeString(((Enum<?>) value).name());
+        if (type.isArray())
+            return arraySerializer(type.getComponentType());
+        if (Collection.class.isAssignableFrom(type))
+            return JsonSerializers::writeCollection;
+        if (Map.class.isAssignableFrom(type))
+            return JsonSerializers::writeMap;
+        if (type == JSONObject.class || type == JSONArray.class)
+            return (value, out) -> out.writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+        if (JSONObject.NULL.getClass() == type)
+            return (value, out) -> out.writeNull();
+        if (isPlatformType(type))
+            return (value, out) -> out.writeString(value.toString());
+        return ObjectSerializer.of(type);
+    }
+
+    /**
+     * Classes of the JDK are not opened for reflection; they are written through their string form.
+     */
+    private static boolean isPlatformType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+
+    private static void writeCollection(Object value, JsonWriter out) {
+        out.enter();
+        out.writeByte('[');
+        boolean first = true;
+        for (Object element : (Collection<?>) value) {
+            if (!first)
+                out.writeByte(',');
+            first = false;
+            write(element, out);
+        }
+        out.writeByte(']');
+        out.exit();
+    }
+
+    private static void writeMap(Object value, JsonWriter out) {
+        out.enter();
+        out.writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            if (!first)
+                out.writeByte(',');
+            first = false;
+            out.writeString(String.valueOf(entry.getKey()));
+            out.writeByte(':');
+            write(entry.getValue(), out);
+        }
+        out.writeByte('}');
+        out.exit();
+    }
+
+    private static ValueSerializer arraySerializer(Class<?> component) {
+        if (component == int.class)
+            return (value, out) -> {
+                int[] array = (int[]) value;
+                out.writeByte('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeLong(array[i]);
+                }
+                out.writeByte(']');
+            };
+        if (component == long.class)
+            return (value, out) -> {
+                long[] array = (long[]) value;
+                out.writeByte('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeLong(array[i]);
+                }
+                out.writeByte(']');
+            };
+        if (component == double.class)
+            return (value, out) -> {
+                double[] array = (double[]) value;
+                out.writeByte('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeDouble(array[i]);
+                }
+                out.writeByte(']');
+            };
+        if (!component.isPrimitive())
+            return (value, out) -> {
+                Object[] array = (Object[]) value;
+                out.enter();
+                out.writeByte('[');
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    write(array[i], out);
+                }
+                out.writeByte(']');
+                out.exit();
+            };
+        return (value, out) -> {
+            int length = Array.getLength(value);
+            out.writeByte('[');
+            for (int i = 0; i < length; i++) {
+                if (i > 0) out.writeByte(',');
+                write(Array.get(value, i), out);
+            }
+            out.writeByte(']');
+        };
+    }
+}
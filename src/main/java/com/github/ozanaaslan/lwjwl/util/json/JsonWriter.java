@@ -0,0 +1,279 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable UTF-8 byte buffer that JSON is written into. When a sink is attached the buffer
+ * is flushed to it whenever it fills up, so output of any size streams with a fixed footprint.
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final int MAX_DEPTH = 512;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] buffer;
+    private int size;
+    private OutputStream sink;
+    private int depth;
+    private boolean inUse;
+
+    public JsonWriter() {
+        this(512);
+    }
+
+    public JsonWriter(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Streams into the given output whenever the buffer fills up; call {@link #flush()} when done.
+     */
+    public JsonWriter(OutputStream sink) {
+        this(8192);
+        this.sink = sink;
+    }
+
+    /**
+     * Hands out the calling thread's buffer, or a fresh one if it is already in use further up the stack.
+     * Pair with {@link #release()}.
+     */
+    public static JsonWriter acquire() {
+        JsonWriter writer = WRITERS.get();
+        if (writer.inUse)
+            return new JsonWriter();
+        writer.inUse = true;
+        return writer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire()}. Buffers that grew very large are dropped.
+     */
+    public void release() {
+        reset();
+        inUse = false;
+        if (buffer.length > MAX_RETAINED_CAPACITY && WRITERS.get() == this)
+            WRITERS.remove();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public void reset() {
+        size = 0;
+        depth = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    public void flush() {
+        if (sink == null)
+            return;
+        try {
+            sink.write(buffer, 0, size);
+            size = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void enter() {
+        if (++depth > MAX_DEPTH)
+            throw new IllegalStateException("Object graph nested deeper than " + MAX_DEPTH + " levels, is it cyclic?");
+    }
+
+    void exit() {
+        depth--;
+    }
+
+    public void writeByte(int b) {
+        ensure(1);
+        buffer[size++] = (byte) b;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        if (bytes.length > buffer.length - size && sink != null) {
+            flush();
+            if (bytes.length > buffer.length) {
+                try {
+                    sink.write(bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public void writeNull() {
+        writeBytes(NULL);
+    }
+
+    public void writeBoolean(boolean value) {
+        writeBytes(value ? TRUE : FALSE);
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10)
+            digits++;
+        int end = size + digits;
+        for (int i = end - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        size = end;
+    }
+
+    /**
+     * Writes a floating point number the way org.json formats it: no trailing zeros after the point,
+     * non-finite values as null.
+     */
+    public void writeDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeNull();
+            return;
+        }
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            writeLong((long) value);
+            return;
+        }
+        writeAscii(stripTrailingZeros(Double.toString(value)));
+    }
+
+    public void writeFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeNull();
+            return;
+        }
+        if (value == (long) value && Math.abs(value) < 1e7f) {
+            writeLong((long) value);
+            return;
+        }
+        writeAscii(stripTrailingZeros(Float.toString(value)));
+    }
+
+    /**
+     * Writes characters that are known to be ASCII and need no escaping, such as numbers.
+     */
+    public void writeAscii(String ascii) {
+        int length = ascii.length();
+        ensure(length);
+        for (int i = 0; i < length; i++)
+            buffer[size++] = (byte) ascii.charAt(i);
+    }
+
+    /**
+     * Writes a quoted, escaped JSON string.
+     */
+    public void writeString(String value) {
+        int length = value.length();
+        ensure(length + 2);
+        buffer[size++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensure(1);
+                buffer[size++] = (byte) c;
+            } else {
+                writeEscaped(value, i, c);
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1)))
+                    i++;
+            }
+        }
+        ensure(1);
+        buffer[size++] = '"';
+    }
+
+    private void writeEscaped(String value, int index, char c) {
+        ensure(6);
+        switch (c) {
+            case '"': buffer[size++] = '\\'; buffer[size++] = '"'; return;
+            case '\\': buffer[size++] = '\\'; buffer[size++] = '\\'; return;
+            case '\n': buffer[size++] = '\\'; buffer[size++] = 'n'; return;
+            case '\r': buffer[size++] = '\\'; buffer[size++] = 'r'; return;
+            case '\t': buffer[size++] = '\\'; buffer[size++] = 't'; return;
+            case '\b': buffer[size++] = '\\'; buffer[size++] = 'b'; return;
+            case '\f': buffer[size++] = '\\'; buffer[size++] = 'f'; return;
+        }
+        if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+            buffer[size++] = '\\';
+            buffer[size++] = 'u';
+            buffer[size++] = HEX[(c >> 12) & 0xF];
+            buffer[size++] = HEX[(c >> 8) & 0xF];
+            buffer[size++] = HEX[(c >> 4) & 0xF];
+            buffer[size++] = HEX[c & 0xF];
+        } else if (c < 0x800) {
+            buffer[size++] = (byte) (0xC0 | (c >> 6));
+            buffer[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            int codePoint = Character.codePointAt(value, index);
+            if (codePoint == c) {
+                buffer[size++] = '?';
+                return;
+            }
+            buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[size++] = (byte) (0xE0 | (c >> 12));
+            buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra <= buffer.length)
+            return;
+        if (sink != null) {
+            flush();
+            if (extra <= buffer.length)
+                return;
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+    }
+
+    private static String stripTrailingZeros(String number) {
+        if (number.indexOf('.') < 0 || number.indexOf('E') >= 0)
+            return number;
+        int end = number.length();
+        while (number.charAt(end - 1) == '0')
+            end--;
+        if (number.charAt(end - 1) == '.')
+            end--;
+        return number.substring(0, end);
+    }
+}
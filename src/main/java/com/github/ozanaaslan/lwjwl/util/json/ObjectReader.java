@@ -0,0 +1,211 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binding plan for a plain object: a no-args constructor and one setter per field, by JSON name.
+ * Primitive int, long, double and boolean fields are set through exactly typed handles without boxing.
+ * Unknown names are skipped, missing ones keep the value the constructor gave them.
+ */
+final class ObjectReader implements ValueReader {
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Map<String, FieldBinder> fields;
+
+    private ObjectReader(Class<?> type, MethodHandle constructor, Map<String, FieldBinder> fields) {
+        this.type = type;
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    static ValueReader of(Class<?> type) {
+        MethodHandle constructor = null;
+        try {
+            Constructor<?> declared = type.getDeclaredConstructor();
+            declared.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(declared).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // reported when a value of this type is actually read
+        }
+
+        Map<String, FieldBinder> fields = new HashMap<>();
+        for (Field field : ObjectSerializer.fieldsOf(type)) {
+            try {
+                fields.put(field.getName(), FieldBinder.of(field));
+            } catch (ReflectiveOperationException | RuntimeException inaccessible) {
+                // fields that cannot be made writable are left alone
+            }
+        }
+        return new ObjectReader(type, constructor, fields);
+    }
+
+    @Override
+    public Object read(JsonReader reader) {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (constructor == null)
+            throw new JsonException(type.getName() + " needs a no-args constructor to be read from JSON");
+        Object instance;
+        try {
+            instance = (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new JsonException("Cannot create " + type.getName(), t);
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            FieldBinder field = fields.get(reader.nextName());
+            if (field == null)
+                reader.skipValue();
+            else
+                field.read(reader, instance);
+        }
+        reader.endObject();
+        return instance;
+    }
+
+    private abstract static class FieldBinder {
+
+        final MethodHandle setter;
+
+        FieldBinder(MethodHandle setter) {
+            this.setter = setter;
+        }
+
+        static FieldBinder of(Field field) throws IllegalAccessException {
+            field.setAccessible(true);
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            Class<?> type = field.getType();
+            if (type == int.class)
+                return new IntBinder(setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+            if (type == long.class)
+                return new LongBinder(setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+            if (type == double.class)
+                return new DoubleBinder(setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+            if (type == boolean.class)
+                return new BooleanBinder(setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+            return new ValueBinder(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                    JsonDeserializers.deferred(field.getGenericType()), type.isPrimitive());
+        }
+
+        /**
+         * A null for a primitive field leaves the field untouched.
+         */
+        boolean skipNull(JsonReader reader) {
+            if (reader.peek() != JsonReader.Token.NULL)
+                return false;
+            reader.nextNull();
+            return true;
+        }
+
+        abstract void read(JsonReader reader, Object instance);
+
+        static JsonException failure(Throwable t) {
+            return t instanceof JsonException ? (JsonException) t : new JsonException("Cannot set field", t);
+        }
+    }
+
+    private static final class IntBinder extends FieldBinder {
+        IntBinder(MethodHandle setter) {
+            super(setter);
+        }
+
+        @Override
+        void read(JsonReader reader, Object instance) {
+            if (skipNull(reader))
+                return;
+            int value = reader.nextInt();
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class LongBinder extends FieldBinder {
+        LongBinder(MethodHandle setter) {
+            super(setter);
+        }
+
+        @Override
+        void read(JsonReader reader, Object instance) {
+            if (skipNull(reader))
+                return;
+            long value = reader.nextLong();
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class DoubleBinder extends FieldBinder {
+        DoubleBinder(MethodHandle setter) {
+            super(setter);
+        }
+
+        @Override
+        void read(JsonReader reader, Object instance) {
+            if (skipNull(reader))
+                return;
+            double value = reader.nextDouble();
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class BooleanBinder extends FieldBinder {
+        BooleanBinder(MethodHandle setter) {
+            super(setter);
+        }
+
+        @Override
+        void read(JsonReader reader, Object instance) {
+            if (skipNull(reader))
+                return;
+            boolean value = reader.nextBoolean();
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class ValueBinder extends FieldBinder {
+
+        private final ValueReader reader;
+        private final boolean primitive;
+
+        ValueBinder(MethodHandle setter, ValueReader reader, boolean primitive) {
+            super(setter);
+            this.reader = reader;
+            this.primitive = primitive;
+        }
+
+        @Override
+        void read(JsonReader in, Object instance) {
+            if (primitive && skipNull(in))
+                return;
+            Object value = reader.read(in);
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+}
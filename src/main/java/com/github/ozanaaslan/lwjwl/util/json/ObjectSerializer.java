@@ -0,0 +1,216 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.beans.Transient;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer for plain objects. The fields (including inherited ones, skipping static and
+ * {@link Transient} fields) are resolved once into getters and pre-encoded {@code "name":} prefixes.
+ * Primitive fields are read through exactly typed handles, so they are never boxed.
+ */
+final class ObjectSerializer implements ValueSerializer {
+
+    private static final byte[] EMPTY_OBJECT = {'{', '}'};
+
+    private final FieldWriter[] fields;
+
+    private ObjectSerializer(FieldWriter[] fields) {
+        this.fields = fields;
+    }
+
+    static ValueSerializer of(Class<?> type) {
+        List<FieldWriter> writers = new ArrayList<>();
+        try {
+            for (Field field : fieldsOf(type)) {
+                byte[] prefix = ((writers.isEmpty() ? "{" : ",") + quote(field.getName()) + ":").getBytes(StandardCharsets.UTF_8);
+                writers.add(FieldWriter.of(field, prefix));
+            }
+        } catch (RuntimeException | IllegalAccessException inaccessible) {
+            return (value, out) -> out.writeString(value.toString());
+        }
+        return new ObjectSerializer(writers.toArray(new FieldWriter[0]));
+    }
+
+    static List<Field> fieldsOf(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        if (type.getSuperclass() != null && type.getSuperclass() != Object.class)
+            fields.addAll(fieldsOf(type.getSuperclass()));
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || field.isAnnotationPresent(Transient.class))
+                continue;
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    private static String quote(String name) {
+        JsonWriter writer = new JsonWriter(name.length() + 2);
+        writer.writeString(name);
+        return writer.toString();
+    }
+
+    @Override
+    public void write(Object value, JsonWriter out) {
+        if (fields.length == 0) {
+            out.writeBytes(EMPTY_OBJECT);
+            return;
+        }
+        out.enter();
+        for (FieldWriter field : fields) {
+            out.writeBytes(field.prefix);
+            field.write(value, out);
+        }
+        out.writeByte('}');
+        out.exit();
+    }
+
+    private abstract static class FieldWriter {
+
+        final byte[] prefix;
+        final MethodHandle getter;
+
+        FieldWriter(byte[] prefix, MethodHandle getter) {
+            this.prefix = prefix;
+            this.getter = getter;
+        }
+
+        static FieldWriter of(Field field, byte[] prefix) throws IllegalAccessException {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            Class<?> type = field.getType();
+            if (type == int.class || type == short.class || type == byte.class)
+                return new IntField(prefix, getter.asType(MethodType.methodType(int.class, Object.class)));
+            if (type == long.class)
+                return new LongField(prefix, getter.asType(MethodType.methodType(long.class, Object.class)));
+            if (type == double.class)
+                return new DoubleField(prefix, getter.asType(MethodType.methodType(double.class, Object.class)));
+            if (type == float.class)
+                return new FloatField(prefix, getter.asType(MethodType.methodType(float.class, Object.class)));
+            if (type == boolean.class)
+                return new BooleanField(prefix, getter.asType(MethodType.methodType(boolean.class, Object.class)));
+            if (type == char.class)
+                return new CharField(prefix, getter.asType(MethodType.methodType(char.class, Object.class)));
+            return new ObjectField(prefix, getter.asType(MethodType.methodType(Object.class, Object.class)));
+        }
+
+        abstract void write(Object owner, JsonWriter out);
+
+        static IllegalStateException failure(Throwable t) {
+            return new IllegalStateException("Cannot read field", t);
+        }
+    }
+
+    private static final class IntField extends FieldWriter {
+        IntField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeLong((int) getter.invokeExact(owner));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class LongField extends FieldWriter {
+        LongField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeLong((long) getter.invokeExact(owner));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class DoubleField extends FieldWriter {
+        DoubleField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeDouble((double) getter.invokeExact(owner));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class FloatField extends FieldWriter {
+        FloatField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeFloat((float) getter.invokeExact(owner));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class BooleanField extends FieldWriter {
+        BooleanField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeBoolean((boolean) getter.invokeExact(owner));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class CharField extends FieldWriter {
+        CharField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            try {
+                out.writeString(String.valueOf((char) getter.invokeExact(owner)));
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+        }
+    }
+
+    private static final class ObjectField extends FieldWriter {
+        ObjectField(byte[] prefix, MethodHandle getter) {
+            super(prefix, getter);
+        }
+
+        @Override
+        void write(Object owner, JsonWriter out) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(owner);
+            } catch (Throwable t) {
+                throw failure(t);
+            }
+            JsonSerializers.write(value, out);
+        }
+    }
+}
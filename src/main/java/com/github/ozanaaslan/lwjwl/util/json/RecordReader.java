@@ -0,0 +1,81 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binding plan for a record: values are collected by component name and passed to the canonical constructor.
+ * Missing components are null, or the default value for primitive components.
+ */
+final class RecordReader implements ValueReader {
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Map<String, Integer> indices;
+    private final ValueReader[] readers;
+    private final Object[] defaults;
+
+    private RecordReader(Class<?> type, MethodHandle constructor, Map<String, Integer> indices, ValueReader[] readers, Object[] defaults) {
+        this.type = type;
+        this.constructor = constructor;
+        this.indices = indices;
+        this.readers = readers;
+        this.defaults = defaults;
+    }
+
+    static ValueReader of(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        Map<String, Integer> indices = new HashMap<>();
+        ValueReader[] readers = new ValueReader[components.length];
+        Object[] defaults = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            indices.put(components[i].getName(), i);
+            readers[i] = JsonDeserializers.deferred(components[i].getGenericType());
+            if (parameterTypes[i].isPrimitive())
+                defaults[i] = java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(parameterTypes[i], 1), 0);
+        }
+        MethodHandle constructor;
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(canonical).asSpreader(Object[].class, components.length);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return reader -> {
+                throw new JsonException("Cannot access the canonical constructor of " + type.getName(), e);
+            };
+        }
+        return new RecordReader(type, constructor, indices, readers, defaults);
+    }
+
+    @Override
+    public Object read(JsonReader reader) {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Object[] values = defaults.clone();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Integer index = indices.get(reader.nextName());
+            if (index == null) {
+                reader.skipValue();
+                continue;
+            }
+            Object value = readers[index].read(reader);
+            if (value != null)
+                values[index] = value;
+        }
+        reader.endObject();
+        try {
+            return constructor.invoke(values);
+        } catch (Throwable t) {
+            throw new JsonException("Cannot create " + type.getName(), t);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+/**
+ * Reads the next value of a {@link JsonReader} as one target type.
+ */
+@FunctionalInterface
+public interface ValueReader {
+
+    Object read(JsonReader reader);
+
+}
@@ -0,0 +1,11 @@
+package com.github.ozanaaslan.lwjwl.util.json;
+
+/**
+ * Writes values of one runtime type as JSON.
+ */
+@FunctionalInterface
+public interface ValueSerializer {
+
+    void write(Object value, JsonWriter out);
+
+}
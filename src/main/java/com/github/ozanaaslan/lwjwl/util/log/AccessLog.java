@@ -0,0 +1,54 @@
+package com.github.ozanaaslan.lwjwl.util.log;
+
+import com.github.ozanaaslan.lwjwl.util.json.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes one JSON object per request to the {@code com.github.ozanaaslan.lwjwl.access} logger:
+ * <pre>{@code
+ * {"time":1718000000000,"remote":"127.0.0.1","method":"GET","path":"/users/1","protocol":"HTTP/1.1","status":200,"bytes":17,"micros":412}
+ * }</pre>
+ * {@code bytes} is the announced Content-Length and missing for chunked bodies; {@code micros} is the time until
+ * the handler returned, which for streams and upgraded connections is when the response started.
+ */
+public final class AccessLog {
+
+    private static final Log LOG = Log.get("com.github.ozanaaslan.lwjwl.access");
+
+    private AccessLog() {
+    }
+
+    public static void log(HttpExchange exchange, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.writeAscii("{\"time\":");
+            writer.writeLong(System.currentTimeMillis());
+            writer.writeAscii(",\"remote\":");
+            writer.writeString(exchange.getRemoteAddress().getAddress().getHostAddress());
+            writer.writeAscii(",\"method\":");
+            writer.writeString(exchange.getRequestMethod());
+            writer.writeAscii(",\"path\":");
+            writer.writeString(exchange.getRequestURI().getRawPath());
+            writer.writeAscii(",\"protocol\":");
+            writer.writeString(exchange.getProtocol());
+            writer.writeAscii(",\"status\":");
+            writer.writeLong(exchange.getResponseCode());
+            String length = exchange.getResponseHeaders().getFirst("Content-Length");
+            if (length != null) {
+                writer.writeAscii(",\"bytes\":");
+                writer.writeAscii(length);
+            }
+            writer.writeAscii(",\"micros\":");
+            writer.writeLong(micros);
+            writer.writeByte('}');
+            // Switched on by its own option, so the access log does not depend on the log level
+            LOG.append(LogLevel.INFO, new String(writer.toByteArray(), StandardCharsets.UTF_8), null);
+        } finally {
+            writer.release();
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.github.ozanaaslan.lwjwl.util.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Hands log records to java.util.logging on a background thread, so request threads never queue up on the
+ * handlers' locks or wait for their I/O. Records that do not fit into the ring buffer are dropped and counted;
+ * the count is logged as soon as there is room again.
+ */
+final class AsyncAppender {
+
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    private final RingBuffer<Entry> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+
+    AsyncAppender(int capacity) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.thread = new Thread(this::run, "lwjwl-log");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void append(Logger logger, LogRecord record) {
+        if (!buffer.offer(new Entry(logger, record))) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (sleeping)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits until the records appended so far have been handed on, or the timeout passed.
+     */
+    void flush(long timeoutMillis) {
+        Entry marker = new Entry(null, null);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!buffer.offer(marker)) {
+            if (System.currentTimeMillis() > deadline)
+                return;
+            Thread.yield();
+        }
+        LockSupport.unpark(thread);
+        synchronized (marker) {
+            while (!marker.done && System.currentTimeMillis() < deadline) {
+                try {
+                    marker.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (true) {
+            Entry entry = buffer.poll();
+            if (entry == null) {
+                if (!running)
+                    return;
+                sleeping = true;
+                // Re-check after announcing the nap, so a record appended in between is not left waiting
+                if ((entry = buffer.poll()) == null) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    sleeping = false;
+                    continue;
+                }
+                sleeping = false;
+            }
+            deliver(entry);
+        }
+    }
+
+    private void deliver(Entry entry) {
+        if (entry.logger == null) {
+            synchronized (entry) {
+                entry.done = true;
+                entry.notifyAll();
+            }
+            return;
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0)
+            entry.logger.log(Level.WARNING, lost + " log records were dropped because the log buffer was full");
+        try {
+            entry.logger.log(entry.record);
+        } catch (RuntimeException e) {
+            // A broken handler must not take the appender down with it
+        }
+    }
+
+    private static final class Entry {
+
+        final Logger logger;
+        final LogRecord record;
+        boolean done;
+
+        Entry(Logger logger, LogRecord record) {
+            this.logger = logger;
+            this.record = record;
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.github.ozanaaslan.lwjwl.util.log;
+
+import java.util.function.Supplier;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * The logger used by LWJWL. The level is checked with a single field read before anything else happens, so
+ * callers that build their message only after {@link #isDebugEnabled()} cost nothing while debug is off.
+ * Records that pass go to the java.util.logging logger of the same name, by default through an
+ * {@link AsyncAppender} so the request threads do not wait for the logging handlers.
+ * <pre>{@code
+ * private static final Log LOG = Log.get(MyEndpoints.class);
+ * if (LOG.isDebugEnabled())
+ *     LOG.debug("Loaded " + user);
+ * }</pre>
+ */
+public final class Log {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static volatile int threshold = LogLevel.INFO.ordinal();
+    private static volatile AsyncAppender appender = new AsyncAppender(BUFFER_SIZE);
+
+    private final Logger logger;
+
+    private Log(Logger logger) {
+        this.logger = logger;
+    }
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(), "lwjwl-log-flush"));
+    }
+
+    public static Log get(Class<?> type) {
+        return new Log(Logger.getLogger(type.getName()));
+    }
+
+    public static Log get(String name) {
+        return new Log(Logger.getLogger(name));
+    }
+
+    public static LogLevel getLevel() {
+        return LogLevel.values()[threshold];
+    }
+
+    /**
+     * Sets the level for all of LWJWL. The java.util.logging logger of the {@code com.github.ozanaaslan.lwjwl}
+     * package follows it; for debug output its handlers have to accept fine records too.
+     */
+    public static void setLevel(LogLevel level) {
+        threshold = level.ordinal();
+        Logger.getLogger("com.github.ozanaaslan.lwjwl").setLevel(level.getJulLevel());
+    }
+
+    /**
+     * Whether records are handed on by a background thread, which is the default, or by the thread that logs them.
+     */
+    public static synchronized void setAsync(boolean async) {
+        AsyncAppender current = appender;
+        if (async == (current != null))
+            return;
+        if (async) {
+            appender = new AsyncAppender(BUFFER_SIZE);
+            return;
+        }
+        appender = null;
+        current.flush(1000);
+        current.stop();
+    }
+
+    public static boolean isAsync() {
+        return appender != null;
+    }
+
+    /**
+     * Waits briefly until the records logged so far have been handed on.
+     */
+    public static void flush() {
+        AsyncAppender current = appender;
+        if (current != null)
+            current.flush(1000);
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isTraceEnabled() {
+        return LogLevel.TRACE.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return LogLevel.DEBUG.ordinal() >= threshold;
+    }
+
+    public void trace(String message) {
+        log(LogLevel.TRACE, message, null);
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    /**
+     * Builds the message only if debug is enabled.
+     */
+    public void debug(Supplier<String> message) {
+        if (isDebugEnabled())
+            log(LogLevel.DEBUG, message.get(), null);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(String message, Throwable t) {
+        log(LogLevel.WARN, message, t);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable t) {
+        log(LogLevel.ERROR, message, t);
+    }
+
+    public void log(LogLevel level, String message, Throwable t) {
+        if (level.ordinal() < threshold || level == LogLevel.OFF)
+            return;
+        append(level, message, t);
+    }
+
+    void append(LogLevel level, String message, Throwable t) {
+        LogRecord record = new LogRecord(level.getJulLevel(), message);
+        record.setLoggerName(logger.getName());
+        // Set explicitly; inferred on the appender thread it would name the wrong caller
+        record.setSourceClassName(logger.getName());
+        record.setSourceMethodName(null);
+        record.setThrown(t);
+        AsyncAppender current = appender;
+        if (current != null)
+            current.append(logger, record);
+        else
+            logger.log(record);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.github.ozanaaslan.lwjwl.util.log;
+
+import lombok.Getter;
+
+import java.util.logging.Level;
+
+public enum LogLevel {
+
+    TRACE(Level.FINER),
+    DEBUG(Level.FINE),
+    INFO(Level.INFO),
+    WARN(Level.WARNING),
+    ERROR(Level.SEVERE),
+    OFF(Level.OFF);
+
+    /**
+     * The java.util.logging level records of this level are forwarded with.
+     */
+    @Getter
+    private final Level julLevel;
+
+    LogLevel(Level julLevel) {
+        this.julLevel = julLevel;
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.github.ozanaaslan.lwjwl.web.cache;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Cached;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ResponseType;
+import com.github.ozanaaslan.lwjwl.web.session.Cookie;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The responses of one {@link Cached} endpoint, keyed by verb, path and the selected parameters.
+ * <p>
+ * Each key maps to a future, so concurrent misses for the same key wait for the one request that invokes the
+ * endpoint instead of invoking it themselves. The cached {@link Response} is shared by every request it is served
+ * to, with its body and ETag computed once.
+ */
+public class ResponseCache {
+
+    private final long ttlNanos;
+    private final String[] params;
+    private final int maxEntries;
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseCache(Duration ttl, String[] params, int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive");
+        this.ttlNanos = ttl.toNanos();
+        this.params = params.clone();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cache declared by {@link Cached} on the method, or null if there is none
+     */
+    public static ResponseCache of(Method method) {
+        Cached cached = method.getDeclaredAnnotation(Cached.class);
+        if (cached == null)
+            return null;
+        return new ResponseCache(Duration.ofSeconds(cached.ttl()), cached.params(), cached.maxEntries());
+    }
+
+    /**
+     * Invokes the endpoint through the loader unless a fresh response is cached or already being loaded.
+     */
+    public Response respond(EndpointController controller, Loader loader) throws Exception {
+        String verb = controller.getExchange().getRequestMethod();
+        if (!verb.equals("GET") && !verb.equals("HEAD"))
+            return loader.load();
+
+        String key = key(controller);
+        while (true) {
+            CompletableFuture<Entry> current = entries.get(key);
+            if (current == null) {
+                CompletableFuture<Entry> future = new CompletableFuture<>();
+                if (entries.putIfAbsent(key, future) == null)
+                    return load(key, future, loader);
+                continue;
+            }
+            if (!current.isDone()) {
+                Entry entry = current.join();
+                hits.increment();
+                // Null when the response could not be cached: nothing to share, so invoke the endpoint here
+                return entry != null ? entry.response : loader.load();
+            }
+            Entry entry = current.join();
+            long now = System.nanoTime();
+            if (entry != null && entry.expires - now > 0) {
+                entry.lastUsed = now;
+                hits.increment();
+                return entry.response;
+            }
+            CompletableFuture<Entry> future = new CompletableFuture<>();
+            if (entries.replace(key, current, future))
+                return load(key, future, loader);
+        }
+    }
+
+    private Response load(String key, CompletableFuture<Entry> future, Loader loader) throws Exception {
+        misses.increment();
+        Entry entry = null;
+        try {
+            Response response = loader.load();
+            if (cacheable(response)) {
+                // Hashed here once, instead of by each request it is served to
+                response.getETag();
+                entry = new Entry(response, System.nanoTime() + ttlNanos);
+            }
+            return response;
+        } finally {
+            if (entry == null)
+                entries.remove(key, future);
+            future.complete(entry);
+            if (entry != null && entries.size() > maxEntries)
+                evict();
+        }
+    }
+
+    private static boolean cacheable(Response response) {
+        return response != null && response.getStatusCode() == 200
+                && (response.getResponseType() == ResponseType.BYTES || response.getResponseType() == ResponseType.TEXT);
+    }
+
+    private String key(EndpointController controller) {
+        StringBuilder key = new StringBuilder(64);
+        // HEAD is answered from the GET response
+        key.append("GET ").append(controller.getExchange().getRequestURI().getRawPath());
+        if (params.length == 0) {
+            String query = controller.getExchange().getRequestURI().getRawQuery();
+            if (query != null)
+                key.append('?').append(query);
+            return key.toString();
+        }
+        for (String param : params) {
+            String value = controller.getQueryParameter(param);
+            if (value == null) {
+                Cookie cookie = controller.getCookie(param);
+                value = cookie == null ? null : cookie.getValue();
+            }
+            key.append('\n').append(param);
+            if (value != null)
+                key.append('=').append(value);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Drops expired responses and then the least recently used ones until a tenth of the capacity is free again,
+     * so the sorting is paid once per many insertions. Only one thread evicts at a time; the others carry on.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true))
+            return;
+        try {
+            long now = System.nanoTime();
+            List<Map.Entry<String, CompletableFuture<Entry>>> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<String, CompletableFuture<Entry>> candidate : entries.entrySet()) {
+                CompletableFuture<Entry> future = candidate.getValue();
+                if (!future.isDone())
+                    continue;
+                Entry entry = future.join();
+                if (entry == null || entry.expires - now <= 0)
+                    entries.remove(candidate.getKey(), future);
+                else
+                    candidates.add(candidate);
+            }
+            int target = maxEntries - maxEntries / 10;
+            int excess = entries.size() - target;
+            if (excess <= 0)
+                return;
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().join().lastUsed - now));
+            for (int i = 0; i < excess && i < candidates.size(); i++)
+                entries.remove(candidates.get(i).getKey(), candidates.get(i).getValue());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Invokes the endpoint.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Response load() throws Exception;
+    }
+
+    private static final class Entry {
+        final Response response;
+        final long expires;
+        /**
+         * Written without synchronization on every hit; eviction only needs an approximate order.
+         */
+        long lastUsed;
+
+        Entry(Response response, long expires) {
+            this.response = response;
+            this.expires = expires;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.ozanaaslan.lwjwl.web.compression;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Negotiated response compression. Bodies are compressed when the client accepts one of the encoders,
+ * the Content-Type is on the allowlist and the body is at least {@link #minSize} bytes; smaller bodies
+ * would not gain enough to pay for the CPU time.
+ * <p>
+ * Bodies with a strong ETag are compressed once and served from a cache afterwards; the cache is keyed
+ * by the body itself, not the ETag, which is only unique per resource. The ETag is sent weak for the
+ * compressed variant, as it no longer describes the exact bytes.
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class Compression {
+
+    private static final ContentType[] DEFAULT_TYPES = {
+            ContentType.TEXT_HTML, ContentType.TEXT_PLAIN, ContentType.TEXT_CSS, ContentType.TEXT_CSV,
+            ContentType.TEXT_XML, ContentType.TEXT_JAVASCRIPT, ContentType.TEXT_MARKDOWN,
+            ContentType.APPLICATION_JSON, ContentType.APPLICATION_XML, ContentType.APPLICATION_XHTML_XML,
+            ContentType.APPLICATION_X_JAVASCRIPT, ContentType.APPLICATION_MANIFEST_JSON, ContentType.APPLICATION_WASM,
+            ContentType.IMAGE_SVG_XML};
+
+    private int minSize = 1024;
+    /**
+     * Whether static files are served from a precompressed sibling such as {@code app.js.gz} when it is
+     * at least as new as the file.
+     */
+    private boolean precompressed = true;
+    /**
+     * Files up to this size are compressed in memory and cached; larger ones are compressed while streaming.
+     */
+    private int maxCachedSize = 1024 * 1024;
+    @Setter(AccessLevel.NONE)
+    private final List<ContentEncoder> encoders = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    private final Set<String> contentTypes = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final VariantCache cache;
+
+    public Compression() {
+        this(16 * 1024 * 1024);
+    }
+
+    /**
+     * @param cacheSize how many bytes of compressed variants are kept
+     */
+    public Compression(long cacheSize) {
+        this.cache = new VariantCache(cacheSize);
+        this.encoders.add(ContentEncoder.gzip(Deflater.DEFAULT_COMPRESSION));
+        this.encoders.add(ContentEncoder.deflate(Deflater.DEFAULT_COMPRESSION));
+        allow(DEFAULT_TYPES);
+    }
+
+    /**
+     * Adds an encoder that is preferred over the ones added before.
+     */
+    public Compression addEncoder(ContentEncoder encoder) {
+        encoders.removeIf(existing -> existing.getName().equals(encoder.getName()));
+        encoders.add(0, encoder);
+        return this;
+    }
+
+    public Compression allow(ContentType... types) {
+        for (ContentType type : types)
+            contentTypes.add(type.getContentType());
+        return this;
+    }
+
+    public Compression disallow(ContentType... types) {
+        for (ContentType type : types)
+            contentTypes.remove(type.getContentType());
+        return this;
+    }
+
+    /**
+     * @param contentType a Content-Type header value, parameters such as the charset are ignored
+     */
+    public boolean isCompressible(String contentType) {
+        if (contentType == null)
+            return false;
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        return contentTypes.contains(type);
+    }
+
+    /**
+     * Picks the encoder with the highest quality in an Accept-Encoding header; ties go to the server's preference.
+     *
+     * @return the encoder, or null to send the body as it is
+     */
+    public ContentEncoder negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty())
+            return null;
+        ContentEncoder best = null;
+        float bestQuality = 0;
+        for (ContentEncoder encoder : encoders) {
+            float quality = quality(acceptEncoding, encoder.getName());
+            if (quality > bestQuality) {
+                best = encoder;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compresses a response body if the exchange allows it and sets Content-Encoding, Vary and the ETag.
+     *
+     * @return the body to send, which is the given one if it is not compressed
+     */
+    public byte[] encode(HttpExchange exchange, int status, byte[] body) {
+        if (body.length < minSize || status < 200 || status == 204 || status == 304)
+            return body;
+        Headers headers = exchange.getResponseHeaders();
+        ContentEncoder encoder = select(exchange);
+        if (encoder == null)
+            return body;
+        String etag = headers.getFirst("ETag");
+        byte[] encoded = etag != null && !etag.startsWith("W/") && body.length <= maxCachedSize
+                ? cache.get(bodyKey(body, encoder), body, () -> encoder.encode(body))
+                : encoder.encode(body);
+        if (encoded.length >= body.length)
+            return body;
+        headers.set("Content-Encoding", encoder.getName());
+        if (etag != null)
+            headers.set("ETag", weak(etag));
+        return encoded;
+    }
+
+    /**
+     * Decides on an encoder for a response whose headers are set up, adding {@code Vary: Accept-Encoding}
+     * whenever the response could be compressed.
+     *
+     * @return the encoder, or null if the response is sent as it is
+     */
+    public ContentEncoder select(HttpExchange exchange) {
+        Headers headers = exchange.getResponseHeaders();
+        if (headers.containsKey("Content-Encoding") || !isCompressible(headers.getFirst("Content-Type")))
+            return null;
+        headers.add("Vary", "Accept-Encoding");
+        return negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    /**
+     * @return the compressed sibling of a file for the encoder, or null if there is none or it is outdated
+     */
+    public File precompressedFile(File file, ContentEncoder encoder) {
+        if (!precompressed || encoder.getFileExtension() == null)
+            return null;
+        File sibling = new File(file.getPath() + "." + encoder.getFileExtension());
+        return sibling.isFile() && sibling.lastModified() >= file.lastModified() ? sibling : null;
+    }
+
+    /**
+     * @return a compressed variant from the cache, compressing and caching it if needed
+     */
+    public byte[] cached(String key, ContentEncoder encoder, Supplier<byte[]> body) {
+        return cache.get(key + encoder.getName(), null, () -> encoder.encode(body.get()));
+    }
+
+    private static String bodyKey(byte[] body, ContentEncoder encoder) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return "body:" + body.length + ':' + Long.toHexString(crc.getValue()) + ':' + encoder.getName();
+    }
+
+    public static String weak(String etag) {
+        return etag.startsWith("W/") ? etag : "W/" + etag;
+    }
+
+    private static float quality(String acceptEncoding, String coding) {
+        float wildcard = 0;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim();
+            float quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(coding))
+                return quality;
+            if (name.equals("*"))
+                wildcard = quality;
+        }
+        return wildcard;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.ozanaaslan.lwjwl.web.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A content coding such as gzip. Further codings, e.g. brotli from a native library, can be plugged in
+ * with {@link Compression#addEncoder(ContentEncoder)}.
+ */
+public interface ContentEncoder {
+
+    /**
+     * @return the token used in Accept-Encoding and Content-Encoding, e.g. {@code gzip} or {@code br}
+     */
+    String getName();
+
+    /**
+     * @return the extension of precompressed siblings of static files, e.g. {@code gz}, or null if there are none
+     */
+    String getFileExtension();
+
+    /**
+     * @return a stream that compresses into {@code out}; flushing it pushes out everything written so far
+     */
+    OutputStream wrap(OutputStream out) throws IOException;
+
+    default byte[] encode(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = wrap(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static ContentEncoder gzip(int level) {
+        return new ContentEncoder() {
+            @Override
+            public String getName() {
+                return "gzip";
+            }
+
+            @Override
+            public String getFileExtension() {
+                return "gz";
+            }
+
+            @Override
+            public OutputStream wrap(OutputStream out) throws IOException {
+                return new GZIPOutputStream(out, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            }
+        };
+    }
+
+    static ContentEncoder deflate(int level) {
+        return new ContentEncoder() {
+            @Override
+            public String getName() {
+                return "deflate";
+            }
+
+            @Override
+            public String getFileExtension() {
+                return null;
+            }
+
+            @Override
+            public OutputStream wrap(OutputStream out) {
+                Deflater deflater = new Deflater(level);
+                return new DeflaterOutputStream(out, deflater, 8192, true) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            deflater.end();
+                        }
+                    }
+                };
+            }
+        };
+    }
+}
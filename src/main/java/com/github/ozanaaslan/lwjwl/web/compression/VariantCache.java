@@ -0,0 +1,65 @@
+package com.github.ozanaaslan.lwjwl.web.compression;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps compressed variants of bodies so the same body is compressed once.
+ * Least recently used variants are dropped once the cache holds more than its size in bytes.
+ * <p>
+ * Variants of files are keyed by path and ETag. Variants of in-memory bodies are keyed by a hash of the body
+ * and keep the body, so a hit is only served when the bytes are the same: a colliding hash or an ETag
+ * reused by another resource never hands out someone else's body.
+ */
+final class VariantCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Variant> variants = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    VariantCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param source the body the variant is made of, compared on every hit; null if the key alone identifies it
+     */
+    byte[] get(String key, byte[] source, Supplier<byte[]> encoder) {
+        synchronized (this) {
+            Variant cached = variants.get(key);
+            if (cached != null && (source == null || Arrays.equals(cached.source, source)))
+                return cached.encoded;
+        }
+        // Compress outside the lock; two threads may race on the same key, which only costs work
+        Variant variant = new Variant(source, encoder.get());
+        synchronized (this) {
+            Variant previous = variants.put(key, variant);
+            if (previous != null)
+                bytes -= previous.size();
+            bytes += variant.size();
+            Iterator<Map.Entry<String, Variant>> eldest = variants.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().size();
+                eldest.remove();
+            }
+        }
+        return variant.encoded;
+    }
+
+    private static final class Variant {
+        final byte[] source;
+        final byte[] encoded;
+
+        Variant(byte[] source, byte[] encoded) {
+            this.source = source;
+            this.encoded = encoded;
+        }
+
+        long size() {
+            return (source == null ? 0 : source.length) + encoded.length;
+        }
+    }
+}
@@ -1,44 +1,60 @@
 package com.github.ozanaaslan.lwjwl.web.endpoint;
 
 import com.github.ozanaaslan.lwjwl.LWJWL;
+import com.github.ozanaaslan.lwjwl.util.log.AccessLog;
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.github.ozanaaslan.lwjwl.web.compression.Compression;
+import com.github.ozanaaslan.lwjwl.web.compression.ContentEncoder;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.FormDecoder;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.FormParameters;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.PayloadTooLargeException;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.RequestBody;
 import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
 import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ResponseType;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Validators;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.Route;
+import com.github.ozanaaslan.lwjwl.web.file.FileSender;
+import com.github.ozanaaslan.lwjwl.web.metrics.Metrics;
 import com.github.ozanaaslan.lwjwl.web.session.Cookie;
+import com.github.ozanaaslan.lwjwl.web.sse.SseEmitter;
+import com.github.ozanaaslan.lwjwl.web.websocket.WebSockets;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 public abstract class EndpointController implements IEndpoint, HttpHandler {
 
+    private static final Log LOG = Log.get(EndpointController.class);
 
-    @Getter
+    private FormParameters queryForm;
+    private FormParameters bodyForm;
     private HashMap<String, String> queryParameters;
-    @Getter
     private HashMap<String, String> bodyParameters;
-    @Getter
     private List<Cookie> cookies;
+    private boolean cookiesParsed;
 
-    @Getter
     private String requesterAddress;
-    @Getter
-    private byte[] requestBody;
-    @Getter
-    private String query = "";
+    private RequestBody body;
 
     @Getter
     private HttpExchange exchange;
+    /**
+     * The route the request was matched to, set by the dispatcher; null for static files and unknown paths.
+     */
+    @Getter
+    @Setter
+    private Route route;
 
     public EndpointController() {
     }
@@ -62,7 +78,7 @@ public abstract class EndpointController implements IEndpoint, HttpHandler {
 
     public Cookie getCookie(String key) {
         List<Cookie> cookies;
-        if ((cookies = this.cookies) != null) {
+        if ((cookies = getCookies()) != null) {
             for (Cookie cookie : cookies) {
                 if (cookie.getKey().equalsIgnoreCase(key)) {
                     return cookie;
@@ -93,68 +109,171 @@ public abstract class EndpointController implements IEndpoint, HttpHandler {
         exchange.getResponseHeaders().add("Content-Type", contentType.getContentType());
     }
 
+    void reset() {
+        this.exchange = null;
+        this.requesterAddress = null;
+        this.body = null;
+        this.cookies = null;
+        this.queryForm = null;
+        this.bodyForm = null;
+        this.queryParameters = null;
+        this.bodyParameters = null;
+        this.cookiesParsed = false;
+        this.route = null;
+    }
+
+    /**
+     * Binds the controller to an exchange. Nothing is parsed here: query, body and cookies
+     * are each parsed the first time they are asked for and then kept for the rest of the request.
+     */
     private void setHttpExchange(HttpExchange httpExchange) {
         this.exchange = httpExchange;
-        this.requesterAddress = httpExchange.getRemoteAddress().getAddress().getHostAddress();
-        this.requestBody = readAllBytes(httpExchange.getRequestBody());
-        this.query = httpExchange.getRequestURI().getQuery();
-
-        this.cookies = getCookiez();
-        this.queryParameters = getQueryMap();
-        this.bodyParameters = getBodyMap();
     }
 
-    protected HashMap<String, String> getQueryMap() {
-        if (getQuery() != null && !getQuery().equals(""))
-            return getMapFromString(getQuery());
-        return null;
+    public String getRequesterAddress() {
+        if (requesterAddress == null)
+            requesterAddress = exchange.getRemoteAddress().getAddress().getHostAddress();
+        return requesterAddress;
     }
 
-    protected HashMap<String, String> getBodyMap() {
-        return getMapFromString(decode(new String(this.requestBody)));
+    public String getQuery() {
+        return exchange.getRequestURI().getQuery();
     }
 
-    protected HashMap<String, String> getMapFromString(String string) {
-        String[] quers = string.split("&");
-        HashMap<String, String> hashMap = new HashMap<>();
-        for (String str : quers)
-            hashMap.put(str.split("=")[0], str.split("=").length == 2 ? str.split("=")[1] : null);
-        return hashMap;
+    /**
+     * @return the query parameters as a map, or null if the request has no query
+     */
+    public HashMap<String, String> getQueryParameters() {
+        if (queryParameters == null)
+            queryParameters = getQueryMap();
+        return queryParameters;
     }
 
-    private String decode(String s) {
-        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    /**
+     * The decoded query parameters, including repeated names. Parsed when first asked for.
+     */
+    public FormParameters getQueryForm() {
+        if (queryForm == null)
+            queryForm = FormDecoder.decode(exchange.getRequestURI().getRawQuery());
+        return queryForm;
     }
 
-    @SneakyThrows
-    private byte[] readAllBytes(InputStream inputStream) {
-        byte[] bytes = new byte[inputStream.available()];
-        int read = 0;
+    public String getQueryParameter(String name) {
+        return getQueryForm().get(name);
+    }
 
-        while (inputStream.available() > 0) {
-            bytes[read] = (byte) inputStream.read();
-            read++;
+    public List<Cookie> getCookies() {
+        if (!cookiesParsed) {
+            cookies = getCookiez();
+            cookiesParsed = true;
         }
-        return bytes;
+        return cookies;
+    }
+
+    public RequestBody getBody() {
+        if (body == null)
+            body = new RequestBody(exchange.getRequestBody(),
+                    RequestBody.contentLength(exchange.getRequestHeaders().getFirst("Content-Length"),
+                            exchange.getRequestHeaders().getFirst("Transfer-Encoding")),
+                    LWJWL.getLwjwl().getMaxBodySize());
+        return body;
+    }
+
+    /**
+     * Reads the whole request body into memory on first access.
+     *
+     * @throws PayloadTooLargeException if the body exceeds the configured maximum body size
+     */
+    public byte[] getRequestBody() {
+        return getBody().bytes();
+    }
+
+    /**
+     * The request body as a stream, for handlers that want to consume it without holding it in memory.
+     * Can only be consumed once and not together with {@link #getRequestBody()}.
+     */
+    public InputStream getBodyStream() {
+        return getBody().stream();
+    }
+
+    public ReadableByteChannel getBodyChannel() {
+        return getBody().channel();
+    }
+
+    public HashMap<String, String> getBodyParameters() {
+        if (bodyParameters == null)
+            bodyParameters = getBodyMap();
+        return bodyParameters;
+    }
+
+    /**
+     * The form-encoded parameters of the request body, including repeated names.
+     * Decoded straight from the body bytes when first asked for.
+     */
+    public FormParameters getBodyForm() {
+        if (bodyForm == null)
+            bodyForm = FormDecoder.decode(getRequestBody());
+        return bodyForm;
+    }
+
+    public String getBodyParameter(String name) {
+        return getBodyForm().get(name);
+    }
+
+    protected HashMap<String, String> getQueryMap() {
+        if (getQuery() != null && !getQuery().equals(""))
+            return getQueryForm().toMap();
+        return null;
+    }
+
+    protected HashMap<String, String> getBodyMap() {
+        return getBodyForm().toMap();
     }
 
+    protected HashMap<String, String> getMapFromString(String string) {
+        return FormDecoder.decode(string).toMap();
+    }
+
+    /**
+     * Sends the response and completes the exchange. Closing the exchange does not close the connection;
+     * whether it is kept alive for further requests is up to the server engine and the client.
+     */
     @SneakyThrows
     public void respond(int responseCode, byte[] responseBytes) {
+        Compression compression = LWJWL.getLwjwl().getOptions().getCompression();
+        if (compression != null)
+            responseBytes = compression.encode(exchange, responseCode, responseBytes);
         exchange.sendResponseHeaders(responseCode, responseBytes.length);
         exchange.getResponseBody().write(responseBytes);
         exchange.getResponseBody().flush();
         exchange.close();
     }
 
+    @SneakyThrows
     public void respond(Response response) {
         if (response == null) {
             respond(500, "Internal Server Error");
             return;
         }
+        if (response.getCacheControl() != null)
+            exchange.getResponseHeaders().set("Cache-Control", response.getCacheControl().getValue());
+        String method = exchange.getRequestMethod();
+        String etag = response.getStatusCode() == 200 && (method.equals("GET") || method.equals("HEAD"))
+                ? response.getETag() : null;
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (response.getResponseType() != ResponseType.FILE && response.getResponseType() != ResponseType.DOWNLOAD
+                    && Validators.notModified(exchange, etag, -1)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+        }
 
         switch (response.getResponseType()) {
             case FILE:
-                fileResponse(response.getFile());
+                FileSender.send(exchange, response.getFile(), response.getStatusCode(), false,
+                        LWJWL.getLwjwl().getOptions().getCompression());
                 return;
 
             case TEXT:
@@ -174,23 +293,67 @@ public abstract class EndpointController implements IEndpoint, HttpHandler {
                 return;
 
             case DOWNLOAD:
-                fileDownloadResponse(response.getFile());
+                FileSender.send(exchange, response.getFile(), response.getStatusCode(), true,
+                        LWJWL.getLwjwl().getOptions().getCompression());
+                return;
+
+            case STREAM:
+                stream(response);
+                return;
+
+            case EVENTS:
+                events(response);
+                return;
+
+            case UPGRADE:
+                WebSockets.accept(exchange, response.getWebSocket(), LWJWL.getLwjwl().getExecutor());
         }
 
     }
 
-    @SneakyThrows
-    private void fileDownloadResponse(File file) {
-        exchange.getResponseHeaders().add("Content-Disposition", "attachment; filename=" + file.getName());
-        fileResponse(file);
+    /**
+     * Sends a streaming body chunked, compressed on the fly if compression applies. If the body fails
+     * halfway the exception is passed on without finishing the chunked body, so the server drops the
+     * connection and the client sees the response as incomplete rather than short.
+     */
+    private void stream(Response response) throws IOException {
+        if (response.getContentType() != null)
+            setContentType(response.getContentType());
+        Compression compression = LWJWL.getLwjwl().getOptions().getCompression();
+        ContentEncoder encoder = compression == null ? null : compression.select(exchange);
+        if (encoder != null)
+            exchange.getResponseHeaders().set("Content-Encoding", encoder.getName());
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(response.getStatusCode(), -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(response.getStatusCode(), 0);
+        OutputStream out = encoder == null ? exchange.getResponseBody() : encoder.wrap(exchange.getResponseBody());
+        response.getStream().writeTo(out);
+        out.close();
+        exchange.close();
     }
 
-    @SneakyThrows
-    private void fileResponse(File file) {
-        exchange.sendResponseHeaders(200, file.length());
-        Files.copy(file.toPath(), exchange.getResponseBody());
-        exchange.getResponseBody().flush();
-        exchange.close();
+    /**
+     * Opens an event stream and hands the emitter to the handler. The request thread is free once the
+     * handler returns; the exchange stays open until the emitter closes.
+     */
+    private void events(Response response) throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            setContentType(ContentType.TEXT_EVENT_STREAM);
+            exchange.sendResponseHeaders(response.getStatusCode(), -1);
+            exchange.close();
+            return;
+        }
+        SseEmitter emitter = SseEmitter.open(exchange, response.getStatusCode(),
+                LWJWL.getLwjwl().getOptions().getSseHeartbeat());
+        try {
+            response.getEventSource().accept(emitter);
+        } catch (RuntimeException e) {
+            emitter.close();
+            throw e;
+        }
     }
 
     private void redirect(String url) {
@@ -214,12 +377,32 @@ public abstract class EndpointController implements IEndpoint, HttpHandler {
         respond(responseCode, response);
     }
 
+    /**
+     * Entry point of the HTTP server. Every exchange gets its own {@link RequestContext},
+     * which is what {@link #handle(EndpointController)} receives.
+     */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        setHttpExchange(exchange);
-        LWJWL.getLwjwl().getLogger().info("Handling request from " + requesterAddress + " for "
-                + exchange.getRequestURI() + " with method " + exchange.getRequestMethod());
-        Response r = handle(this);
-        respond(r);
+        LWJWL server = LWJWL.getLwjwl();
+        boolean accessLog = server.getOptions().isAccessLog();
+        Metrics metrics = server.getMetrics();
+        long start = accessLog || metrics != null ? System.nanoTime() : 0;
+        if (metrics != null)
+            metrics.requestStarted();
+        EndpointController context = RequestContext.acquire(this);
+        try {
+            context.setHttpExchange(exchange);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Handling request from " + context.getRequesterAddress() + " for "
+                        + exchange.getRequestURI() + " with method " + exchange.getRequestMethod());
+            Response r = handle(context);
+            context.respond(r);
+        } finally {
+            if (metrics != null)
+                metrics.requestCompleted(context.getRoute(), exchange.getResponseCode(), System.nanoTime() - start);
+            RequestContext.release(context);
+            if (accessLog)
+                AccessLog.log(exchange, start);
+        }
     }
 }
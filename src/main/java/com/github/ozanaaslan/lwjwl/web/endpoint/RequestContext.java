@@ -0,0 +1,54 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The per-request {@link EndpointController} handed to endpoints. It carries the state of a single
+ * exchange and forwards dispatching to the controller that is registered with the server, so requests
+ * handled concurrently never see each other's parameters, cookies or body.
+ * <p>
+ * Contexts are recycled once the response is sent; endpoints must not keep a reference to the
+ * controller beyond the call they received it in.
+ */
+final class RequestContext extends EndpointController {
+
+    private static final int POOL_SIZE = 256;
+    private static final int PROBES = 4;
+    private static final AtomicReferenceArray<RequestContext> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private EndpointController owner;
+
+    private RequestContext() {
+    }
+
+    static EndpointController acquire(EndpointController owner) {
+        int start = ThreadLocalRandom.current().nextInt(POOL_SIZE);
+        RequestContext context = null;
+        for (int i = 0; i < PROBES && context == null; i++)
+            context = POOL.getAndSet((start + i) & (POOL_SIZE - 1), null);
+        if (context == null)
+            context = new RequestContext();
+        context.owner = owner;
+        return context;
+    }
+
+    static void release(EndpointController controller) {
+        if (!(controller instanceof RequestContext))
+            return;
+        RequestContext context = (RequestContext) controller;
+        context.owner = null;
+        context.reset();
+        int start = ThreadLocalRandom.current().nextInt(POOL_SIZE);
+        for (int i = 0; i < PROBES; i++)
+            if (POOL.compareAndSet((start + i) & (POOL_SIZE - 1), null, context))
+                return;
+    }
+
+    @Override
+    public Response handle(EndpointController endpointController) {
+        return owner.handle(endpointController);
+    }
+}
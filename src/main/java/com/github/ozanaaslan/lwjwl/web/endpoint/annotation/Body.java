@@ -0,0 +1,17 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the request body to a parameter. JSON bodies are read straight from the request stream
+ * into the parameter's type; {@code byte[]}, {@code String}, {@code InputStream} and
+ * {@code ReadableByteChannel} parameters receive the raw body instead.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+
+@Target(ElementType.PARAMETER)
+public @interface Body {
+}
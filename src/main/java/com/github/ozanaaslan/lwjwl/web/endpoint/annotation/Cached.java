@@ -0,0 +1,33 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the responses of an endpoint in memory and serves GET and HEAD requests from there until they expire.
+ * Only 200 responses with a byte or text body are kept, already serialized. Headers and cookies the endpoint
+ * sets on the controller are not part of the cached response.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+    /**
+     * Seconds a response is served from the cache.
+     */
+    long ttl() default 60;
+
+    /**
+     * Query parameters and cookies whose values tell responses for the same path apart. When empty, the whole
+     * query string does.
+     */
+    String[] params() default {};
+
+    /**
+     * Upper bound for the number of cached responses; the least recently used ones are dropped first.
+     */
+    int maxEntries() default 1024;
+}
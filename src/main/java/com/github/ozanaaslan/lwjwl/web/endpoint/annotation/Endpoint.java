@@ -5,6 +5,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Maps a method to a path. Besides literal paths, templates are supported:
+ * {@code /users/{id}} captures one segment as {@code id}, and a trailing {@code {rest*}}
+ * or {@code *} captures the remainder of the path. Captured values bind to {@link Param} arguments.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 
 @Target({ElementType.METHOD, ElementType.TYPE})
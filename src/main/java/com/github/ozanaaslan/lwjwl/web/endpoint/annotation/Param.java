@@ -10,4 +10,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.PARAMETER)
 public @interface Param {
     String value();
+
+    /**
+     * Restricting the source means the other parts of the request are never parsed for this parameter.
+     */
+    ParamSource source() default ParamSource.ANY;
 }
@@ -0,0 +1,29 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.annotation;
+
+/**
+ * Where the value of a {@link Param} is taken from.
+ */
+public enum ParamSource {
+
+    /**
+     * A variable of the endpoint's path template.
+     */
+    PATH,
+    /**
+     * The query string.
+     */
+    QUERY,
+    /**
+     * The form-encoded request body.
+     */
+    BODY,
+    /**
+     * A request cookie.
+     */
+    COOKIE,
+    /**
+     * The first of path, cookie, query and body that has a value, in that order.
+     * Only the sources needed to find the value are parsed.
+     */
+    ANY
+}
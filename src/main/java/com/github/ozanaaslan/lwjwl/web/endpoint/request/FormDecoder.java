@@ -0,0 +1,164 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.request;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass decoder for {@code application/x-www-form-urlencoded} data and query strings.
+ * <p>
+ * Pairs are split on the raw input first and each name and value is percent-decoded on its own,
+ * so encoded {@code &} and {@code =} survive. Components that need no decoding are turned into
+ * strings directly from the input; the others are decoded through one scratch buffer per call.
+ */
+public final class FormDecoder {
+
+    private FormDecoder() {
+    }
+
+    public static FormParameters decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public static FormParameters decode(ByteBuffer buffer) {
+        if (buffer.hasArray())
+            return decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return decode(bytes);
+    }
+
+    public static FormParameters decode(byte[] bytes, int offset, int length) {
+        if (length == 0)
+            return FormParameters.EMPTY;
+        FormParameters parameters = new FormParameters();
+        byte[] scratch = null;
+        int end = offset + length;
+        int start = offset;
+        int equals = -1;
+        for (int i = offset; i <= end; i++) {
+            byte b = i == end ? (byte) '&' : bytes[i];
+            if (b == '=' && equals < 0) {
+                equals = i;
+            } else if (b == '&') {
+                if (i > start) {
+                    int nameEnd = equals < 0 ? i : equals;
+                    if (scratch == null && needsDecoding(bytes, start, i))
+                        scratch = new byte[length];
+                    String name = component(bytes, start, nameEnd, scratch);
+                    String value = equals < 0 ? null : component(bytes, equals + 1, i, scratch);
+                    parameters.add(name, value);
+                }
+                start = i + 1;
+                equals = -1;
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Decodes a raw (still percent-encoded) query string.
+     */
+    public static FormParameters decode(String raw) {
+        if (raw == null || raw.isEmpty())
+            return FormParameters.EMPTY;
+        FormParameters parameters = new FormParameters();
+        int length = raw.length();
+        byte[] scratch = raw.indexOf('%') >= 0 || raw.indexOf('+') >= 0 ? new byte[length * 3] : null;
+        int start = 0;
+        int equals = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i == length ? '&' : raw.charAt(i);
+            if (c == '=' && equals < 0) {
+                equals = i;
+            } else if (c == '&') {
+                if (i > start) {
+                    int nameEnd = equals < 0 ? i : equals;
+                    String name = component(raw, start, nameEnd, scratch);
+                    String value = equals < 0 ? null : component(raw, equals + 1, i, scratch);
+                    parameters.add(name, value);
+                }
+                start = i + 1;
+                equals = -1;
+            }
+        }
+        return parameters;
+    }
+
+    private static boolean needsDecoding(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '%' || b == '+' || b < 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static String component(byte[] bytes, int from, int to, byte[] scratch) {
+        if (scratch == null || !needsDecoding(bytes, from, to))
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '+') {
+                scratch[n++] = ' ';
+            } else if (b == '%' && i + 2 < to && hex(bytes[i + 1]) >= 0 && hex(bytes[i + 2]) >= 0) {
+                scratch[n++] = (byte) ((hex(bytes[i + 1]) << 4) | hex(bytes[i + 2]));
+                i += 2;
+            } else {
+                scratch[n++] = b;
+            }
+        }
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private static String component(String raw, int from, int to, byte[] out) {
+        if (out == null)
+            return raw.substring(from, to);
+        boolean plain = true;
+        for (int i = from; i < to && plain; i++) {
+            char c = raw.charAt(i);
+            plain = c != '%' && c != '+';
+        }
+        if (plain)
+            return raw.substring(from, to);
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = raw.charAt(i);
+            if (c == '+') {
+                out[n++] = ' ';
+            } else if (c == '%' && i + 2 < to && hex(raw.charAt(i + 1)) >= 0 && hex(raw.charAt(i + 2)) >= 0) {
+                out[n++] = (byte) ((hex(raw.charAt(i + 1)) << 4) | hex(raw.charAt(i + 2)));
+                i += 2;
+            } else if (c < 0x80) {
+                out[n++] = (byte) c;
+            } else {
+                int codePoint = Character.codePointAt(raw, i);
+                i += Character.charCount(codePoint) - 1;
+                n = utf8(codePoint, out, n);
+            }
+        }
+        return new String(out, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8(int codePoint, byte[] out, int n) {
+        if (codePoint < 0x800) {
+            out[n++] = (byte) (0xC0 | (codePoint >> 6));
+        } else if (codePoint < 0x10000) {
+            out[n++] = (byte) (0xE0 | (codePoint >> 12));
+            out[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        } else {
+            out[n++] = (byte) (0xF0 | (codePoint >> 18));
+            out[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            out[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        }
+        out[n++] = (byte) (0x80 | (codePoint & 0x3F));
+        return n;
+    }
+
+    private static int hex(int b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        return -1;
+    }
+}
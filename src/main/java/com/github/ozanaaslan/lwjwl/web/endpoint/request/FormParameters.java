@@ -0,0 +1,90 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Decoded name/value pairs of a query string or form body, in the order they were sent.
+ * Names may repeat. A name sent without {@code =} has a null value.
+ * <p>
+ * Lookups scan the pairs linearly, which beats hashing for the handful of fields a form usually has.
+ */
+public class FormParameters {
+
+    public static final FormParameters EMPTY = new FormParameters();
+
+    private String[] names;
+    private String[] values;
+    private int size;
+
+    FormParameters() {
+        this.names = new String[4];
+        this.values = new String[4];
+    }
+
+    void add(String name, String value) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+            values = Arrays.copyOf(values, size << 1);
+        }
+        names[size] = name;
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    public boolean contains(String name) {
+        for (int i = 0; i < size; i++)
+            if (names[i].equals(name))
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the last value sent for the name, or null
+     */
+    public String get(String name) {
+        for (int i = size - 1; i >= 0; i--)
+            if (names[i].equals(name))
+                return values[i];
+        return null;
+    }
+
+    /**
+     * @return every value sent for the name, in request order
+     */
+    public List<String> getAll(String name) {
+        List<String> all = null;
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                if (all == null)
+                    all = new ArrayList<>(2);
+                all.add(values[i]);
+            }
+        }
+        return all == null ? Collections.emptyList() : all;
+    }
+
+    /**
+     * @return the pairs as a map; for repeated names the last value wins
+     */
+    public HashMap<String, String> toMap() {
+        HashMap<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++)
+            map.put(names[i], values[i]);
+        return map;
+    }
+}
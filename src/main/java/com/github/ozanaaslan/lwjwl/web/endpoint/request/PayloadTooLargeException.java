@@ -0,0 +1,19 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.request;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request body exceeds the configured maximum body size.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final long limit;
+
+    public PayloadTooLargeException(long limit) {
+        super("Request body exceeds the limit of " + limit + " bytes");
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.request;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The body of a request. It can be consumed once as a stream or a channel without ever being held
+ * in memory, or materialized with {@link #bytes()}, which reads it with bulk reads and keeps the result.
+ * <p>
+ * The body is read up to the declared Content-Length; bodies sent with chunked transfer encoding
+ * arrive already de-chunked from the server and are read until the end of the stream.
+ * Either way, reading past {@code maxSize} bytes throws a {@link PayloadTooLargeException}.
+ */
+public class RequestBody {
+
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * Largest buffer allocated for a declared Content-Length before any of the body has arrived.
+     */
+    private static final int MAX_INITIAL_SIZE = 64 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The declared length of the body, or -1 if it is not known up front.
+     */
+    @Getter
+    private final long contentLength;
+    @Getter
+    private final long maxSize;
+    private final InputStream source;
+
+    private byte[] bytes;
+    private boolean consumed;
+
+    public RequestBody(InputStream source, long contentLength, long maxSize) {
+        this.source = source;
+        this.contentLength = contentLength;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Parses the length of a body from its Content-Length and Transfer-Encoding header values.
+     *
+     * @return the length, or -1 if it is chunked, missing or malformed
+     */
+    public static long contentLength(String contentLength, String transferEncoding) {
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked"))
+            return -1;
+        if (contentLength == null)
+            return -1;
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the body as a stream that enforces the size limit. Can only be called once,
+     * and not after {@link #bytes()}.
+     */
+    public InputStream stream() {
+        if (bytes != null || consumed)
+            throw new IllegalStateException("Request body has already been consumed");
+        consumed = true;
+        checkDeclaredLength();
+        return new LimitedInputStream(source, maxSize);
+    }
+
+    /**
+     * @return the body as a channel, with the same rules as {@link #stream()}.
+     */
+    public ReadableByteChannel channel() {
+        return Channels.newChannel(stream());
+    }
+
+    /**
+     * Reads the whole body into memory. Subsequent calls return the same array.
+     */
+    @SneakyThrows
+    public byte[] bytes() {
+        if (bytes != null)
+            return bytes;
+        if (contentLength == 0) {
+            consumed = true;
+            return bytes = EMPTY;
+        }
+        if (contentLength > MAX_ARRAY_SIZE)
+            throw new PayloadTooLargeException(MAX_ARRAY_SIZE);
+        try (InputStream in = stream()) {
+            bytes = contentLength > 0 ? readKnownLength(in, (int) contentLength) : readUnknownLength(in);
+        }
+        return bytes;
+    }
+
+    private void checkDeclaredLength() {
+        if (contentLength > maxSize)
+            throw new PayloadTooLargeException(maxSize);
+    }
+
+    /**
+     * The length is the client's claim, so the buffer grows towards it with the bytes that actually arrive.
+     */
+    private static byte[] readKnownLength(InputStream in, int length) throws IOException {
+        byte[] buffer = new byte[Math.min(length, MAX_INITIAL_SIZE)];
+        int total = 0;
+        while (total < length) {
+            if (total == buffer.length)
+                buffer = Arrays.copyOf(buffer, (int) Math.min(length, (long) buffer.length << 1));
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read == -1)
+                break;
+            total += read;
+        }
+        return total == buffer.length ? buffer : Arrays.copyOf(buffer, total);
+    }
+
+    private static byte[] readUnknownLength(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                // A full array of the largest size means there is more body than an array can hold
+                if (length == MAX_ARRAY_SIZE)
+                    throw new PayloadTooLargeException(MAX_ARRAY_SIZE);
+                buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_ARRAY_SIZE, (long) buffer.length << 1));
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Counts what passes through and fails once more than {@code limit} bytes have been read.
+     */
+    private static class LimitedInputStream extends InputStream {
+
+        private final InputStream in;
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1)
+                count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0)
+                count(n);
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > limit)
+                throw new PayloadTooLargeException(limit);
+        }
+    }
+}
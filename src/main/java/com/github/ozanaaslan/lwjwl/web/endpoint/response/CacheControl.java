@@ -0,0 +1,68 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.response;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A Cache-Control policy for a response, e.g. {@code CacheControl.maxAge(Duration.ofHours(1)).publicly()}.
+ */
+public final class CacheControl {
+
+    @Getter
+    private final String value;
+
+    private CacheControl(String value) {
+        this.value = value;
+    }
+
+    public static CacheControl of(String value) {
+        return new CacheControl(value);
+    }
+
+    /**
+     * The response must not be stored anywhere.
+     */
+    public static CacheControl noStore() {
+        return new CacheControl("no-store");
+    }
+
+    /**
+     * The response may be stored but has to be revalidated (cheaply, with its ETag) before every use.
+     */
+    public static CacheControl noCache() {
+        return new CacheControl("no-cache");
+    }
+
+    public static CacheControl maxAge(Duration maxAge) {
+        return new CacheControl("max-age=" + maxAge.getSeconds());
+    }
+
+    public CacheControl publicly() {
+        return with("public");
+    }
+
+    public CacheControl privately() {
+        return with("private");
+    }
+
+    public CacheControl mustRevalidate() {
+        return with("must-revalidate");
+    }
+
+    /**
+     * The response never changes while it is fresh, e.g. for fingerprinted assets.
+     */
+    public CacheControl immutable() {
+        return with("immutable");
+    }
+
+    private CacheControl with(String directive) {
+        return new CacheControl(value + ", " + directive);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
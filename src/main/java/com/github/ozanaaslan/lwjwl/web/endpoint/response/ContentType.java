@@ -4,6 +4,10 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 // Defining an enum of content types.
 @RequiredArgsConstructor
 public enum ContentType {
@@ -21,12 +25,25 @@ public enum ContentType {
     APPLICATION_X_TEX_PREAMBLE("application/x-tex-preamble"),
     APPLICATION_X_TEX_TANGLE("application/x-tex-tangle"),
     APPLICATION_X_TROFF("application/x-troff"),
+    APPLICATION_OCTET_STREAM("application/octet-stream"),
+    APPLICATION_PDF("application/pdf"),
+    APPLICATION_ZIP("application/zip"),
+    APPLICATION_GZIP("application/gzip"),
+    APPLICATION_WASM("application/wasm"),
+    APPLICATION_MANIFEST_JSON("application/manifest+json"),
 
     //list of audio content types
     AUDIO_MPEG("audio/mpeg"),
     AUDIO_X_MS_WMA("audio/x-ms-wma"),
     AUDIO_VND_RN_REALAUDIO("audio/vnd.rn-realaudio"),
     AUDIO_X_WAV("audio/x-wav"),
+    AUDIO_OGG("audio/ogg"),
+    AUDIO_WEBM("audio/webm"),
+
+    FONT_WOFF("font/woff"),
+    FONT_WOFF2("font/woff2"),
+    FONT_TTF("font/ttf"),
+    FONT_OTF("font/otf"),
 
     IMAGE_GIF("image/gif"),
     IMAGE_JPEG("image/jpeg"),
@@ -36,6 +53,8 @@ public enum ContentType {
     IMAGE_X_ICON("image/x-icon"),
     IMAGE_VND_DJVU("image/vnd.djvu"),
     IMAGE_SVG_XML("image/svg+xml"),
+    IMAGE_WEBP("image/webp"),
+    IMAGE_AVIF("image/avif"),
 
     //multipart http content-types
     MULTIPART_FORM_DATA("multipart/form-data"),
@@ -46,7 +65,10 @@ public enum ContentType {
     //list of text content types
     TEXT_CSS("text/css"),
     TEXT_CSV("text/csv"),
+    TEXT_EVENT_STREAM("text/event-stream"),
     TEXT_HTML("text/html"),
+    TEXT_JAVASCRIPT("text/javascript"),
+    TEXT_MARKDOWN("text/markdown"),
     TEXT_PLAIN("text/plain"),
     TEXT_XML("text/xml"),
     TEXT_X_JAVASCRIPT("text/x-javascript"),
@@ -62,6 +84,7 @@ public enum ContentType {
     //list of video content types
     VIDEO_MPEG("video/mpeg"),
     VIDEO_MP4("video/mp4"),
+    VIDEO_WEBM("video/webm"),
     VIDEO_QUICKTIME("video/quicktime"),
     VIDEO_X_MSVIDEO("video/x-msvideo"),
     VIDEO_X_MS_WMV("video/x-ms-wmv"),
@@ -86,10 +109,43 @@ public enum ContentType {
     VIDEO_X_MS_WMV_V15("video/x-ms-wmv-v15");
 
 
+    private static final Map<String, ContentType> BY_EXTENSION = new HashMap<>();
+
+    static {
+        String[][] extensions = {
+                {"html", "TEXT_HTML"}, {"htm", "TEXT_HTML"}, {"css", "TEXT_CSS"}, {"js", "TEXT_JAVASCRIPT"},
+                {"mjs", "TEXT_JAVASCRIPT"}, {"txt", "TEXT_PLAIN"}, {"csv", "TEXT_CSV"}, {"xml", "TEXT_XML"},
+                {"md", "TEXT_MARKDOWN"}, {"json", "APPLICATION_JSON"}, {"webmanifest", "APPLICATION_MANIFEST_JSON"},
+                {"pdf", "APPLICATION_PDF"}, {"zip", "APPLICATION_ZIP"}, {"gz", "APPLICATION_GZIP"},
+                {"wasm", "APPLICATION_WASM"}, {"xhtml", "APPLICATION_XHTML_XML"},
+                {"png", "IMAGE_PNG"}, {"jpg", "IMAGE_JPEG"}, {"jpeg", "IMAGE_JPEG"}, {"gif", "IMAGE_GIF"},
+                {"svg", "IMAGE_SVG_XML"}, {"ico", "IMAGE_X_ICON"}, {"webp", "IMAGE_WEBP"}, {"avif", "IMAGE_AVIF"},
+                {"tif", "IMAGE_TIFF"}, {"tiff", "IMAGE_TIFF"},
+                {"woff", "FONT_WOFF"}, {"woff2", "FONT_WOFF2"}, {"ttf", "FONT_TTF"}, {"otf", "FONT_OTF"},
+                {"mp3", "AUDIO_MPEG"}, {"wav", "AUDIO_X_WAV"}, {"ogg", "AUDIO_OGG"}, {"weba", "AUDIO_WEBM"},
+                {"mp4", "VIDEO_MP4"}, {"m4v", "VIDEO_MP4"}, {"webm", "VIDEO_WEBM"}, {"mpeg", "VIDEO_MPEG"},
+                {"mov", "VIDEO_QUICKTIME"}, {"avi", "VIDEO_X_MSVIDEO"}, {"mkv", "VIDEO_X_MATROSKA"}};
+        for (String[] extension : extensions)
+            BY_EXTENSION.put(extension[0], valueOf(extension[1]));
+    }
+
     @Getter
     @NonNull
     public String contentType;
 
+    /**
+     * Guesses the content type from the extension of a file name.
+     *
+     * @return the content type, or {@link #APPLICATION_OCTET_STREAM} if the extension is unknown
+     */
+    public static ContentType forFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0)
+            return APPLICATION_OCTET_STREAM;
+        ContentType type = BY_EXTENSION.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return type == null ? APPLICATION_OCTET_STREAM : type;
+    }
+
 }
 
 
@@ -0,0 +1,80 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Streams the chunks of a {@link Flow.Publisher}. Chunks are written on the request thread and the next one
+ * is only requested once the previous one has been handed to the connection, so a slow client slows the
+ * publisher down instead of chunks piling up in memory.
+ */
+final class PublisherBody implements StreamingBody {
+
+    private static final Object COMPLETE = new Object();
+
+    private final Flow.Publisher<byte[]> publisher;
+
+    PublisherBody(Flow.Publisher<byte[]> publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                signals.add(s);
+            }
+
+            @Override
+            public void onNext(byte[] item) {
+                signals.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add(COMPLETE);
+            }
+        });
+        try {
+            while (true) {
+                Object signal = signals.take();
+                if (signal == COMPLETE)
+                    return;
+                if (signal instanceof Flow.Subscription) {
+                    subscription[0] = (Flow.Subscription) signal;
+                    subscription[0].request(1);
+                    continue;
+                }
+                if (signal instanceof Throwable)
+                    throw new IOException("Publisher failed", (Throwable) signal);
+                out.write((byte[]) signal);
+                out.flush();
+                subscription[0].request(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(subscription[0]);
+            throw new InterruptedIOException("Interrupted while streaming");
+        } catch (IOException | RuntimeException e) {
+            cancel(subscription[0]);
+            throw e;
+        }
+    }
+
+    private static void cancel(Flow.Subscription subscription) {
+        if (subscription != null)
+            subscription.cancel();
+    }
+}
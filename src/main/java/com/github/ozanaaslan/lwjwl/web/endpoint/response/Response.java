@@ -1,10 +1,17 @@
 package com.github.ozanaaslan.lwjwl.web.endpoint.response;
 
 import com.github.ozanaaslan.lwjwl.util.JsonParser;
+import com.github.ozanaaslan.lwjwl.util.json.JsonSerializers;
+import com.github.ozanaaslan.lwjwl.util.json.JsonWriter;
+import com.github.ozanaaslan.lwjwl.web.sse.SseEmitter;
+import com.github.ozanaaslan.lwjwl.web.websocket.WebSocketEndpoint;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.File;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 /**
  * It's a class that holds the response that will be sent to the client
@@ -15,7 +22,6 @@ public class Response {
     @Setter
     private int statusCode;
     @Getter
-    @Setter
     private byte[] response;
     @Getter
     @Setter
@@ -28,7 +34,26 @@ public class Response {
     private File file = null;
     @Getter
     @Setter
+    private StreamingBody stream = null;
+    @Getter
+    @Setter
+    private Consumer<SseEmitter> eventSource = null;
+    @Getter
+    @Setter
+    private WebSocketEndpoint webSocket = null;
+    @Getter
+    @Setter
     private ResponseType responseType;
+    @Getter
+    @Setter
+    private CacheControl cacheControl;
+    /**
+     * Whether BYTES and TEXT responses get an ETag computed from their body when none was set.
+     */
+    @Getter
+    @Setter
+    private boolean autoETag = true;
+    private volatile String etag;
 
     public Response(Status status, ContentType contentType, String response) {
         this(status.getStatusCode(), contentType, response);
@@ -41,6 +66,13 @@ public class Response {
         this.responseType = ResponseType.BYTES;
     }
 
+    public Response(int status, ContentType contentType, byte[] bytes) {
+        this.statusCode = status;
+        this.response = bytes;
+        this.contentType = contentType;
+        this.responseType = ResponseType.BYTES;
+    }
+
     public Response(int status, URL redirectionUrl) {
         this.redirect = redirectionUrl;
         this.statusCode = status;
@@ -68,8 +100,45 @@ public class Response {
         this.responseType = ResponseType.TEXT;
     }
 
+    public Response(int status, ContentType contentType, StreamingBody stream) {
+        this.statusCode = status;
+        this.contentType = contentType;
+        this.stream = stream;
+        this.responseType = ResponseType.STREAM;
+    }
+
+    public void setResponse(byte[] response) {
+        this.response = response;
+        this.etag = null;
+    }
+
+    /**
+     * @return the ETag set on this response, or one computed from the body and kept for later calls
+     */
+    public String getETag() {
+        String tag = etag;
+        if (tag == null && autoETag && response != null
+                && (responseType == ResponseType.BYTES || responseType == ResponseType.TEXT))
+            etag = tag = Validators.etag(response);
+        return tag;
+    }
+
+    public void setETag(String etag) {
+        this.etag = etag;
+    }
+
+    public Response withCacheControl(CacheControl cacheControl) {
+        this.cacheControl = cacheControl;
+        return this;
+    }
+
+    public Response withETag(String etag) {
+        this.etag = etag;
+        return this;
+    }
+
     public static Response json(int status, Object o){
-        return new Response(status, ContentType.APPLICATION_JSON, JsonParser.toJson(o));
+        return new Response(status, ContentType.APPLICATION_JSON, JsonParser.toJsonBytes(o));
     }
 
     public static Response plain(int status, String plain){
@@ -80,6 +149,72 @@ public class Response {
         return new Response(status, true, file);
     }
 
+    /**
+     * A body written by the handler as it goes, sent chunked.
+     */
+    public static Response stream(int status, ContentType contentType, StreamingBody body) {
+        return new Response(status, contentType, body);
+    }
+
+    /**
+     * Sends each chunk as soon as the iterator produces it.
+     */
+    public static Response stream(int status, ContentType contentType, Iterator<byte[]> chunks) {
+        return new Response(status, contentType, out -> {
+            while (chunks.hasNext()) {
+                out.write(chunks.next());
+                out.flush();
+            }
+        });
+    }
+
+    /**
+     * A server-sent events stream. The consumer gets the open emitter and may keep it and return at once;
+     * the stream stays open until the emitter is closed or the client goes away.
+     */
+    public static Response events(Consumer<SseEmitter> onOpen) {
+        Response response = new Response(200, ContentType.TEXT_EVENT_STREAM, (StreamingBody) null);
+        response.setEventSource(onOpen);
+        response.setResponseType(ResponseType.EVENTS);
+        return response;
+    }
+
+    /**
+     * Switches the connection over to the WebSocket endpoint.
+     */
+    public static Response upgrade(WebSocketEndpoint endpoint) {
+        Response response = new Response(101, null, (StreamingBody) null);
+        response.setWebSocket(endpoint);
+        response.setResponseType(ResponseType.UPGRADE);
+        return response;
+    }
+
+    /**
+     * Sends each chunk as soon as the publisher emits it, requesting one chunk at a time.
+     */
+    public static Response publish(int status, ContentType contentType, Flow.Publisher<byte[]> chunks) {
+        return new Response(status, contentType, new PublisherBody(chunks));
+    }
+
+    /**
+     * Streams the items as a plain JSON array, serializing one item at a time.
+     */
+    public static Response jsonArray(int status, Iterator<?> items) {
+        return new Response(status, ContentType.APPLICATION_JSON, out -> {
+            JsonWriter writer = new JsonWriter(out);
+            writer.writeByte('[');
+            boolean first = true;
+            while (items.hasNext()) {
+                if (!first)
+                    writer.writeByte(',');
+                first = false;
+                JsonSerializers.write(items.next(), writer);
+            }
+            writer.writeByte(']');
+            writer.flush();
+        });
+    }
+
     public static Response redirect(int status, String url){
         return new Response(status, new URL(url));
     }
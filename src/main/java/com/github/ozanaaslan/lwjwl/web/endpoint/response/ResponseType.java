@@ -6,7 +6,9 @@ public enum ResponseType {
     FILE,
     REDIRECT,
     BYTES,
-    DOWNLOAD
-
+    DOWNLOAD,
+    STREAM,
+    EVENTS,
+    UPGRADE
 
 }
@@ -8,6 +8,7 @@ public enum Status {
     UNAUTHORIZED(401),
     FORBIDDEN(403),
     NOT_FOUND(404),
+    PAYLOAD_TOO_LARGE(413),
     INTERNAL_SERVER_ERROR(500);
 
 
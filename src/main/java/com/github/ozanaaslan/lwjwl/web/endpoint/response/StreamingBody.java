@@ -0,0 +1,16 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a response body of unknown length. It is sent with chunked transfer encoding as it is written,
+ * so the whole body never has to be held in memory; {@link OutputStream#flush()} pushes what has been
+ * written so far to the client.
+ */
+@FunctionalInterface
+public interface StreamingBody {
+
+    void writeTo(OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,77 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.response;
+
+import com.github.ozanaaslan.lwjwl.util.HttpDates;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.zip.CRC32C;
+
+/**
+ * ETags and the evaluation of conditional requests (If-None-Match, If-Modified-Since).
+ */
+public final class Validators {
+
+    private Validators() {
+    }
+
+    /**
+     * An ETag from the length and CRC32C of a body. CRC32C is computed by a CPU instruction on current
+     * hardware, so tagging a body costs far less than sending it.
+     */
+    public static String etag(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return "\"" + Integer.toHexString(body.length) + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * An ETag for a file from its modification time and size, so no byte of it has to be read.
+     */
+    public static String etag(long lastModified, long size) {
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * Whether a GET or HEAD request can be answered with 304 because the client already has the
+     * representation. If-None-Match takes precedence over If-Modified-Since.
+     *
+     * @param etag         the current ETag, or null
+     * @param lastModified the time of the last modification in epoch milliseconds, or -1
+     */
+    public static boolean notModified(HttpExchange exchange, String etag, long lastModified) {
+        String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("HEAD"))
+            return false;
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null)
+            return etag != null && matches(ifNoneMatch, etag, false);
+        if (lastModified < 0)
+            return false;
+        long since = HttpDates.parse(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+        return since >= 0 && lastModified / 1000 <= since / 1000;
+    }
+
+    /**
+     * Compares an ETag with a header holding a list of ETags or {@code *}.
+     *
+     * @param strong whether weak tags ({@code W/"..."}) are excluded, as for If-Range
+     */
+    public static boolean matches(String header, String etag, boolean strong) {
+        if (strong && etag.startsWith("W/"))
+            return false;
+        String opaque = opaque(etag);
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*"))
+                return true;
+            if (strong && candidate.startsWith("W/"))
+                continue;
+            if (opaque(candidate).equals(opaque))
+                return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+
+/**
+ * Calls an endpoint method through a {@link MethodHandle} that is adapted once on registration,
+ * together with the plan of how each of its parameters is bound.
+ * <p>
+ * Endpoints that only take the {@link EndpointController} are called without an argument array.
+ * Instance methods are bound to an instance of their declaring class created with its no-args constructor.
+ */
+public final class EndpointInvoker {
+
+    private static final MethodType CONTROLLER_ONLY = MethodType.methodType(Object.class, EndpointController.class);
+    private static final MethodType SPREAD = MethodType.methodType(Object.class, Object[].class);
+
+    @Getter
+    private final Method method;
+    @Getter
+    private final ParameterBinding[] parameters;
+    @Getter
+    private final boolean controllerOnly;
+    @Getter
+    private final boolean returningResponse;
+    private final MethodHandle handle;
+
+    private EndpointInvoker(Method method, ParameterBinding[] parameters, MethodHandle handle) {
+        this.method = method;
+        this.parameters = parameters;
+        this.controllerOnly = parameters.length == 1 && parameters[0].getKind() == ParameterBinding.Kind.CONTROLLER;
+        this.returningResponse = method.getReturnType() == Response.class;
+        this.handle = controllerOnly
+                ? handle.asType(CONTROLLER_ONLY)
+                : handle.asSpreader(Object[].class, parameters.length).asType(SPREAD);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the method cannot be made callable
+     */
+    public static EndpointInvoker of(Method method) {
+        Parameter[] methodParameters = method.getParameters();
+        ParameterBinding[] parameters = new ParameterBinding[methodParameters.length];
+        for (int i = 0; i < methodParameters.length; i++)
+            parameters[i] = ParameterBinding.of(methodParameters[i]);
+
+        MethodHandle handle = unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers()))
+            handle = handle.bindTo(instantiate(method.getDeclaringClass()));
+        return new EndpointInvoker(method, parameters, handle);
+    }
+
+    /**
+     * Invokes an endpoint whose only parameter is the controller.
+     *
+     * @throws InvocationTargetException wrapping anything the endpoint throws
+     */
+    public Object invoke(EndpointController controller) throws InvocationTargetException {
+        try {
+            return handle.invokeExact(controller);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * @param arguments one value per entry of {@link #getParameters()}
+     * @throws InvocationTargetException wrapping anything the endpoint throws
+     */
+    public Object invoke(Object[] arguments) throws InvocationTargetException {
+        try {
+            return handle.invokeExact(arguments);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            } catch (RuntimeException | IllegalAccessException inaccessible) {
+                throw new IllegalArgumentException("Cannot access " + method, inaccessible);
+            }
+        }
+    }
+
+    private static Object instantiate(Class<?> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-args constructor for its instance endpoints", e);
+        }
+    }
+}
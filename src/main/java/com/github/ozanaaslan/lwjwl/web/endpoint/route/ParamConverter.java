@@ -0,0 +1,69 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+/**
+ * Turns the string value of a {@link com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Param}
+ * into the type of the parameter it is bound to. Chosen once per parameter on registration.
+ */
+@FunctionalInterface
+public interface ParamConverter {
+
+    /**
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    Object convert(String value);
+
+    /**
+     * @throws IllegalArgumentException if there is no converter for the type
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static ParamConverter forType(Class<?> type) {
+        if (type == String.class || type == Object.class || type == CharSequence.class)
+            return value -> value;
+        if (type == int.class || type == Integer.class)
+            return value -> Integer.parseInt(value.trim());
+        if (type == long.class || type == Long.class)
+            return value -> Long.parseLong(value.trim());
+        if (type == double.class || type == Double.class)
+            return value -> Double.parseDouble(value.trim());
+        if (type == float.class || type == Float.class)
+            return value -> Float.parseFloat(value.trim());
+        if (type == short.class || type == Short.class)
+            return value -> Short.parseShort(value.trim());
+        if (type == byte.class || type == Byte.class)
+            return value -> Byte.parseByte(value.trim());
+        if (type == boolean.class || type == Boolean.class)
+            return ParamConverter::parseBoolean;
+        if (type == char.class || type == Character.class)
+            return value -> {
+                if (value.length() != 1)
+                    throw new IllegalArgumentException("Expected a single character");
+                return value.charAt(0);
+            };
+        if (type == UUID.class)
+            return value -> UUID.fromString(value.trim());
+        if (type == BigDecimal.class)
+            return value -> new BigDecimal(value.trim());
+        if (type == BigInteger.class)
+            return value -> new BigInteger(value.trim());
+        if (type.isEnum())
+            return value -> {
+                for (Object constant : type.getEnumConstants())
+                    if (((Enum) constant).name().equalsIgnoreCase(value))
+                        return constant;
+                throw new IllegalArgumentException("No constant " + value + " in " + type.getSimpleName());
+            };
+        throw new IllegalArgumentException("No converter for @Param of type " + type.getName());
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equals("1") || value.equalsIgnoreCase("on") || value.equalsIgnoreCase("yes"))
+            return Boolean.TRUE;
+        if (value.equalsIgnoreCase("false") || value.equals("0") || value.equalsIgnoreCase("off") || value.equalsIgnoreCase("no"))
+            return Boolean.FALSE;
+        throw new IllegalArgumentException("Expected a boolean");
+    }
+}
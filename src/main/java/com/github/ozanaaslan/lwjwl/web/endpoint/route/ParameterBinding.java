@@ -0,0 +1,102 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import com.github.ozanaaslan.lwjwl.util.JsonParser;
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Body;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Param;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.ParamSource;
+import lombok.Getter;
+
+import java.io.InputStream;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Describes where the value for one endpoint parameter comes from and how it is converted.
+ * Resolved once on registration.
+ */
+public class ParameterBinding {
+
+    public enum Kind {
+        /**
+         * The {@link EndpointController} of the request.
+         */
+        CONTROLLER,
+        /**
+         * A named request value, see {@link Param}.
+         */
+        PARAM,
+        /**
+         * The request body, see {@link Body}.
+         */
+        BODY,
+        /**
+         * Nothing to bind; the parameter receives null.
+         */
+        UNBOUND
+    }
+
+    @Getter
+    private final Kind kind;
+    @Getter
+    private final String name;
+    @Getter
+    private final ParamSource source;
+    @Getter
+    private final Class<?> type;
+    private final Type genericType;
+    private final ParamConverter converter;
+
+    private ParameterBinding(Kind kind, String name, ParamSource source, Class<?> type, Type genericType, ParamConverter converter) {
+        this.kind = kind;
+        this.name = name;
+        this.source = source;
+        this.type = type;
+        this.genericType = genericType;
+        this.converter = converter;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a {@link Param} has a type that cannot be converted to
+     */
+    public static ParameterBinding of(Parameter parameter) {
+        Class<?> type = parameter.getType();
+        if (EndpointController.class.isAssignableFrom(type))
+            return new ParameterBinding(Kind.CONTROLLER, null, null, type, type, null);
+        if (parameter.isAnnotationPresent(Body.class))
+            return new ParameterBinding(Kind.BODY, parameter.getName(), null, type, parameter.getParameterizedType(), null);
+        Param param = parameter.getAnnotation(Param.class);
+        if (param != null)
+            return new ParameterBinding(Kind.PARAM, param.value(), param.source(), type, type, ParamConverter.forType(type));
+        return new ParameterBinding(Kind.UNBOUND, parameter.getName(), null, type, type, null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value does not fit the parameter type
+     */
+    public Object convert(String value) {
+        return converter.convert(value);
+    }
+
+    /**
+     * Reads the request body as the parameter type.
+     *
+     * @return the body, or null if the request has none
+     * @throws com.github.ozanaaslan.lwjwl.util.json.JsonException if a JSON body does not fit the parameter type
+     */
+    public Object readBody(EndpointController controller) {
+        if (controller.getBody().getContentLength() == 0)
+            return null;
+        if (type == byte[].class)
+            return controller.getRequestBody();
+        if (type == String.class)
+            return new String(controller.getRequestBody(), StandardCharsets.UTF_8);
+        if (type == InputStream.class)
+            return controller.getBodyStream();
+        if (type == ReadableByteChannel.class)
+            return controller.getBodyChannel();
+        return JsonParser.toObject(controller.getBodyStream(), genericType);
+    }
+}
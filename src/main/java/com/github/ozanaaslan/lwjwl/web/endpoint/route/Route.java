@@ -0,0 +1,149 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import com.github.ozanaaslan.lwjwl.web.cache.ResponseCache;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Endpoint;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.*;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A registered endpoint with everything the request path needs resolved up front,
+ * so dispatching never has to touch the reflection API.
+ */
+public class Route {
+
+    static final String WILDCARD = "*";
+
+    @Getter
+    private final String path;
+    @Getter
+    private final Set<String> verbs;
+    @Getter
+    private final Method method;
+    @Getter
+    private final EndpointInvoker invoker;
+    /**
+     * Responses kept for a {@link com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Cached} endpoint, otherwise null.
+     */
+    @Getter
+    private final ResponseCache cache;
+    /**
+     * Names of the path variables in the order they appear in the template.
+     */
+    @Getter
+    private final String[] variableNames;
+    /**
+     * Template segments; literals are lower-cased, variables are kept as written ({@code {id}}, {@code {rest*}} or {@code *}).
+     */
+    final String[] segments;
+    final RouteMatch staticMatch;
+
+    public Route(Method method) {
+        this(method.getDeclaredAnnotation(Endpoint.class).value(), verbsOf(method), method);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path is not a valid template or the method cannot be invoked
+     */
+    public Route(String path, Set<String> verbs, Method method) {
+        this.verbs = Collections.unmodifiableSet(verbs);
+        this.method = method;
+        this.invoker = method == null ? null : EndpointInvoker.of(method);
+        this.cache = method == null ? null : ResponseCache.of(method);
+        this.segments = split(path);
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (isVariable(segment)) {
+                names.add(variableName(segment));
+                if (isWildcard(segment) && i != segments.length - 1)
+                    throw new IllegalArgumentException("Wildcard must be the last segment of '" + path + "'");
+            } else {
+                segments[i] = normalize(segment);
+            }
+        }
+        this.variableNames = names.toArray(new String[0]);
+        this.path = variableNames.length == 0 ? normalize(path) : path;
+        this.staticMatch = variableNames.length == 0 ? new RouteMatch(this, RouteMatch.NO_VALUES) : null;
+    }
+
+    /**
+     * @return true if this route accepts any HTTP method.
+     */
+    public boolean isGeneric() {
+        return verbs.isEmpty();
+    }
+
+    /**
+     * @return true if the path contains variables or a wildcard and has to be matched through the trie.
+     */
+    public boolean isTemplate() {
+        return variableNames.length != 0;
+    }
+
+    /**
+     * Collects the HTTP methods a method is annotated with, in declaration order of the method annotations.
+     *
+     * @param method the endpoint method
+     * @return the upper-case HTTP method names, empty if the endpoint is generic
+     */
+    public static Set<String> verbsOf(Method method) {
+        Set<String> verbs = new LinkedHashSet<>();
+        if (method.isAnnotationPresent(GET.class)) verbs.add("GET");
+        if (method.isAnnotationPresent(POST.class)) verbs.add("POST");
+        if (method.isAnnotationPresent(PUT.class)) verbs.add("PUT");
+        if (method.isAnnotationPresent(PATCH.class)) verbs.add("PATCH");
+        if (method.isAnnotationPresent(DELETE.class)) verbs.add("DELETE");
+        return verbs;
+    }
+
+    /**
+     * Paths are matched case-insensitively, so they are stored lower-cased.
+     * {@link String#toLowerCase(Locale)} hands back the same instance for already normalized paths.
+     */
+    public static String normalize(String path) {
+        return path.toLowerCase(Locale.ROOT);
+    }
+
+    static boolean isVariable(String segment) {
+        return isWildcard(segment) || (segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}');
+    }
+
+    static boolean isWildcard(String segment) {
+        return segment.equals(WILDCARD) || (segment.startsWith("{") && segment.endsWith("*}"));
+    }
+
+    private static String variableName(String segment) {
+        if (segment.equals(WILDCARD))
+            return WILDCARD;
+        return segment.substring(1, segment.length() - (isWildcard(segment) ? 2 : 1));
+    }
+
+    /**
+     * Splits a path into its segments, the leading slash excluded. {@code "/"} is a single empty segment.
+     */
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = path.startsWith("/") ? 1 : 0;
+        for (int i = start; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    @Override
+    public String toString() {
+        return path + " " + (isGeneric() ? "generic" : verbs);
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import lombok.Getter;
+
+/**
+ * The result of a route lookup: the route and the values captured for its path variables.
+ */
+public class RouteMatch {
+
+    static final String[] NO_VALUES = new String[0];
+
+    @Getter
+    private final Route route;
+    private final String[] values;
+
+    RouteMatch(Route route, String[] values) {
+        this.route = route;
+        this.values = values;
+    }
+
+    /**
+     * @param name the variable name as written in the template, {@code *} for an anonymous wildcard
+     * @return the captured value or null if the route has no such variable
+     */
+    public String getVariable(String name) {
+        String[] names = route.getVariableNames();
+        for (int i = 0; i < names.length; i++)
+            if (names[i].equals(name))
+                return values[i];
+        return null;
+    }
+
+    public int getVariableCount() {
+        return route.getVariableNames().length;
+    }
+
+    public String getVariableName(int index) {
+        return route.getVariableNames()[index];
+    }
+
+    public String getVariableValue(int index) {
+        return values[index];
+    }
+}
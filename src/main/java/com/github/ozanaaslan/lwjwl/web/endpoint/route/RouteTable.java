@@ -0,0 +1,51 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled lookup table from (path, HTTP method) to {@link Route}.
+ * Literal paths are resolved with a single hash probe; templated paths
+ * ({@code /users/{id}}, {@code /files/*}) fall through to a {@link RouteTrie}.
+ */
+public class RouteTable {
+
+    private final Map<String, Slot> literals = new ConcurrentHashMap<>();
+    private final RouteTrie templates = new RouteTrie();
+
+    /**
+     * Adds a route to the table.
+     *
+     * @param route the route to add
+     * @return false if the route collides with an already registered one and was not added
+     */
+    public synchronized boolean register(Route route) {
+        if (!route.isTemplate())
+            return literals.computeIfAbsent(route.getPath(), p -> new Slot()).add(route);
+
+        Slot slot = templates.slotFor(route);
+        if (slot != null)
+            return slot.add(route);
+        slot = new Slot();
+        slot.add(route);
+        templates.insert(route, slot);
+        return true;
+    }
+
+    /**
+     * Looks up the route for a request.
+     *
+     * @param path the request path, matched case-insensitively
+     * @param requestMethod the HTTP method of the request
+     * @return the matching route along with its path variables, or null
+     */
+    public RouteMatch lookup(String path, String requestMethod) {
+        Slot slot = literals.get(Route.normalize(path));
+        if (slot != null) {
+            Route route = slot.get(requestMethod);
+            if (route != null)
+                return route.staticMatch;
+        }
+        return templates.match(path, requestMethod);
+    }
+}
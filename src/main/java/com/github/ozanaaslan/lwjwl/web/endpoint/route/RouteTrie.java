@@ -0,0 +1,170 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+/**
+ * Segment trie for templated routes. Matching walks the request path once, segment by segment,
+ * so its cost depends on the depth of the path and not on how many routes are registered.
+ * Literal segments take precedence over variables, variables over wildcards; the walk backtracks
+ * when a branch has no route for the request method.
+ * <p>
+ * Writes are serialized by {@link RouteTable}; readers never lock and only ever see fully built nodes.
+ */
+class RouteTrie {
+
+    private final Node root = new Node();
+    private volatile int maxVariables;
+
+    void insert(Route route, Slot slot) {
+        Node node = root;
+        for (String segment : route.segments) {
+            if (Route.isWildcard(segment)) {
+                if (node.wildcard == null)
+                    node.wildcard = new Node();
+                node = node.wildcard;
+            } else if (Route.isVariable(segment)) {
+                if (node.variable == null)
+                    node.variable = new Node();
+                node = node.variable;
+            } else {
+                Node child = node.literals.get(segment, 0, segment.length());
+                if (child == null) {
+                    child = new Node();
+                    node.literals = node.literals.with(segment, child);
+                }
+                node = child;
+            }
+        }
+        node.slot = slot;
+        maxVariables = Math.max(maxVariables, route.getVariableNames().length);
+    }
+
+    Slot slotFor(Route route) {
+        Node node = root;
+        for (String segment : route.segments) {
+            if (Route.isWildcard(segment))
+                node = node.wildcard;
+            else if (Route.isVariable(segment))
+                node = node.variable;
+            else
+                node = node.literals.get(segment, 0, segment.length());
+            if (node == null)
+                return null;
+        }
+        return node.slot;
+    }
+
+    /**
+     * Values are only cut out of the path on the way back up once a complete match has been found,
+     * so branches that fail never create substrings.
+     */
+    RouteMatch match(String path, String verb) {
+        if (maxVariables == 0)
+            return null;
+        int start = path.startsWith("/") ? 1 : 0;
+        String[] values = new String[maxVariables];
+        Route route = match(root, path, start, verb, values, 0);
+        if (route == null)
+            return null;
+        return new RouteMatch(route, values);
+    }
+
+    private Route match(Node node, String path, int start, String verb, String[] values, int depth) {
+        if (start > path.length())
+            return node.slot == null ? null : node.slot.get(verb);
+
+        int end = path.indexOf('/', start);
+        if (end < 0)
+            end = path.length();
+        int next = end + 1;
+
+        Node literal = node.literals.get(path, start, end);
+        if (literal != null) {
+            Route route = match(literal, path, next, verb, values, depth);
+            if (route != null)
+                return route;
+        }
+
+        if (node.variable != null && end > start) {
+            Route route = match(node.variable, path, next, verb, values, depth + 1);
+            if (route != null) {
+                values[depth] = path.substring(start, end);
+                return route;
+            }
+        }
+
+        if (node.wildcard != null && node.wildcard.slot != null) {
+            Route route = node.wildcard.slot.get(verb);
+            if (route != null) {
+                values[depth] = path.substring(start);
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static class Node {
+        private volatile SegmentMap literals = SegmentMap.EMPTY;
+        private volatile Node variable;
+        private volatile Node wildcard;
+        private volatile Slot slot;
+    }
+
+    /**
+     * Immutable open-addressing map from a case-insensitive path segment to a node.
+     * Lookups hash a region of the request path in place, so no substring is created.
+     */
+    private static class SegmentMap {
+
+        static final SegmentMap EMPTY = new SegmentMap(new String[0], new Node[0], 0);
+
+        private final String[] keys;
+        private final Node[] nodes;
+        private final int size;
+
+        private SegmentMap(String[] keys, Node[] nodes, int size) {
+            this.keys = keys;
+            this.nodes = nodes;
+            this.size = size;
+        }
+
+        Node get(String path, int from, int to) {
+            if (size == 0)
+                return null;
+            int mask = keys.length - 1;
+            int length = to - from;
+            for (int i = hash(path, from, to) & mask; ; i = (i + 1) & mask) {
+                String key = keys[i];
+                if (key == null)
+                    return null;
+                if (key.length() == length && key.regionMatches(true, 0, path, from, length))
+                    return nodes[i];
+            }
+        }
+
+        SegmentMap with(String key, Node node) {
+            int capacity = Integer.highestOneBit(Math.max(4, (size + 1) * 2) - 1) << 1;
+            String[] keys = new String[capacity];
+            Node[] nodes = new Node[capacity];
+            for (int i = 0; i < this.keys.length; i++)
+                if (this.keys[i] != null)
+                    put(keys, nodes, this.keys[i], this.nodes[i]);
+            put(keys, nodes, key, node);
+            return new SegmentMap(keys, nodes, size + 1);
+        }
+
+        private static void put(String[] keys, Node[] nodes, String key, Node node) {
+            int mask = keys.length - 1;
+            int i = hash(key, 0, key.length()) & mask;
+            while (keys[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        private static int hash(String s, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++)
+                h = 31 * h + Character.toLowerCase(s.charAt(i));
+            return h ^ (h >>> 16);
+        }
+    }
+}
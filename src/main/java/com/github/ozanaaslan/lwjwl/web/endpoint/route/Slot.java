@@ -0,0 +1,37 @@
+package com.github.ozanaaslan.lwjwl.web.endpoint.route;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The routes registered for one path, by HTTP method.
+ */
+class Slot {
+
+    private final Map<String, Route> byVerb = new ConcurrentHashMap<>(4);
+    private volatile Route generic;
+
+    /**
+     * Routes bound to the request method take precedence over generic ones.
+     */
+    Route get(String requestMethod) {
+        Route route = byVerb.get(requestMethod.toUpperCase(Locale.ROOT));
+        return route != null ? route : generic;
+    }
+
+    boolean add(Route route) {
+        if (route.isGeneric()) {
+            if (generic != null)
+                return false;
+            generic = route;
+            return true;
+        }
+        for (String verb : route.getVerbs())
+            if (byVerb.containsKey(verb))
+                return false;
+        for (String verb : route.getVerbs())
+            byVerb.put(verb, route);
+        return true;
+    }
+}
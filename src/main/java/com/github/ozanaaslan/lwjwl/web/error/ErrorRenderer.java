@@ -0,0 +1,19 @@
+package com.github.ozanaaslan.lwjwl.web.error;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+
+/**
+ * Turns an error into the response the client gets. The default renders the JSON body of
+ * {@link com.github.ozanaaslan.lwjwl.web.endpoint.response.GenericResponse} from precomputed templates.
+ */
+@FunctionalInterface
+public interface ErrorRenderer {
+
+    /**
+     * @param message short description of the error
+     * @param topic   the status in words, e.g. {@code NOT FOUND}
+     * @param details what exactly went wrong, or null
+     */
+    Response render(int status, String message, String topic, String details);
+
+}
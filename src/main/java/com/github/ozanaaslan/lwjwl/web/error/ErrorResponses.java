@@ -0,0 +1,139 @@
+package com.github.ozanaaslan.lwjwl.web.error;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.PayloadTooLargeException;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the responses for failed requests. Errors the server raises itself go through the {@link ErrorRenderer};
+ * exceptions thrown by endpoints go to the {@link ExceptionHandler} registered for the closest type in their class
+ * hierarchy, and to a 500 with a rate-limited stack trace in the log when there is none.
+ * <pre>{@code
+ * lwjwl.getErrors().handle(NoSuchElementException.class, (e, c) -> Response.plain(404, e.getMessage()));
+ * }</pre>
+ */
+public class ErrorResponses {
+
+    private static final Log LOG = Log.get(ErrorResponses.class);
+    /**
+     * Templates are kept for at most this many distinct messages; handlers building messages on the fly
+     * should not fill the cache.
+     */
+    private static final int MAX_TEMPLATES = 256;
+    private static final ExceptionHandler<Throwable> UNHANDLED = (e, c) -> null;
+
+    private final ErrorTemplate notFound = new ErrorTemplate(404, "No such Endpoint", "NOT FOUND",
+            "There's no such endpoint", true);
+    private final Map<String, ErrorTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ExceptionHandler<Throwable>> handlers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ExceptionHandler<Throwable>> resolved = new ConcurrentHashMap<>();
+    private final StackTraceThrottle stackTraces = new StackTraceThrottle(LOG, Duration.ofSeconds(10).toNanos());
+    /**
+     * The renderer for errors; null means the built-in JSON templates.
+     */
+    @Getter
+    private volatile ErrorRenderer renderer;
+
+    public ErrorResponses() {
+        handle(PayloadTooLargeException.class, (e, c) ->
+                error(413, "Request body too large", "PAYLOAD TOO LARGE", e.getMessage()));
+    }
+
+    public ErrorResponses setRenderer(ErrorRenderer renderer) {
+        this.renderer = renderer;
+        return this;
+    }
+
+    /**
+     * How often the stack trace of the same unhandled exception is logged; the ones in between are only counted.
+     */
+    public ErrorResponses setStackTraceInterval(Duration interval) {
+        stackTraces.setIntervalNanos(interval.toNanos());
+        return this;
+    }
+
+    /**
+     * Answers exceptions of the type and its subtypes with the handler, unless a handler for a closer type exists.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Throwable> ErrorResponses handle(Class<T> type, ExceptionHandler<? super T> handler) {
+        handlers.put(type, (ExceptionHandler<Throwable>) handler);
+        resolved.clear();
+        return this;
+    }
+
+    public Response notFound() {
+        ErrorRenderer custom = renderer;
+        if (custom != null)
+            return custom.render(404, "No such Endpoint", "NOT FOUND", "There's no such endpoint");
+        return json(404, notFound.render(System.currentTimeMillis(), null));
+    }
+
+    public Response error(int status, String message, String topic, String details) {
+        ErrorRenderer custom = renderer;
+        if (custom != null)
+            return custom.render(status, message, topic, details);
+        return json(status, template(status, message, topic).render(System.currentTimeMillis(), details));
+    }
+
+    /**
+     * The response for an exception thrown while handling a request.
+     */
+    public Response exception(Throwable t, EndpointController controller) {
+        ExceptionHandler<Throwable> handler = resolve(t.getClass());
+        if (handler != UNHANDLED) {
+            try {
+                Response response = handler.handle(t, controller);
+                if (response != null)
+                    return response;
+            } catch (RuntimeException e) {
+                e.addSuppressed(t);
+                t = e;
+            }
+        }
+        stackTraces.log("Unhandled exception in " + controller.getExchange().getRequestMethod() + " "
+                + controller.getExchange().getRequestURI().getPath(), t);
+        return error(500, "Something went wrong!", "INTERNAL SERVER ERROR", t.getMessage());
+    }
+
+    private ExceptionHandler<Throwable> resolve(Class<?> type) {
+        ExceptionHandler<Throwable> handler = resolved.get(type);
+        if (handler != null)
+            return handler;
+        handler = UNHANDLED;
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            ExceptionHandler<Throwable> registered = handlers.get(c);
+            if (registered != null) {
+                handler = registered;
+                break;
+            }
+        }
+        resolved.put(type, handler);
+        return handler;
+    }
+
+    private ErrorTemplate template(int status, String message, String topic) {
+        String key = status + "\n" + message + "\n" + topic;
+        ErrorTemplate template = templates.get(key);
+        if (template != null)
+            return template;
+        template = new ErrorTemplate(status, message, topic, null, false);
+        if (templates.size() < MAX_TEMPLATES)
+            templates.putIfAbsent(key, template);
+        else if (LOG.isDebugEnabled())
+            LOG.debug("Error template cache is full; rendering '" + message + "' without it");
+        return template;
+    }
+
+    private static Response json(int status, byte[] body) {
+        return new Response(status, ContentType.APPLICATION_JSON, body);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.github.ozanaaslan.lwjwl.web.error;
+
+import com.github.ozanaaslan.lwjwl.util.json.JsonWriter;
+
+/**
+ * The JSON body of an error, serialized up to the timestamp once, so rendering it only appends the
+ * timestamp and the details. Constant details are serialized up front as well.
+ */
+final class ErrorTemplate {
+
+    private static final byte[] DETAILS = ",\"details\":".getBytes();
+
+    private final byte[] head;
+    private final byte[] tail;
+
+    ErrorTemplate(int status, String message, String topic, String details, boolean constantDetails) {
+        JsonWriter writer = new JsonWriter(128);
+        writer.writeAscii("{\"status\":");
+        writer.writeLong(status);
+        writer.writeAscii(",\"message\":");
+        writeNullable(writer, message);
+        writer.writeAscii(",\"error\":");
+        writeNullable(writer, topic);
+        writer.writeAscii(",\"timestamp\":");
+        this.head = writer.toByteArray();
+        if (!constantDetails) {
+            this.tail = null;
+            return;
+        }
+        writer.reset();
+        writeDetails(writer, details);
+        this.tail = writer.toByteArray();
+    }
+
+    byte[] render(long timestamp, String details) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.writeBytes(head);
+            writer.writeLong(timestamp);
+            if (tail != null)
+                writer.writeBytes(tail);
+            else
+                writeDetails(writer, details);
+            return writer.toByteArray();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static void writeDetails(JsonWriter writer, String details) {
+        writer.writeBytes(DETAILS);
+        writeNullable(writer, details);
+        writer.writeByte('}');
+    }
+
+    private static void writeNullable(JsonWriter writer, String value) {
+        if (value == null)
+            writer.writeNull();
+        else
+            writer.writeString(value);
+    }
+
+}
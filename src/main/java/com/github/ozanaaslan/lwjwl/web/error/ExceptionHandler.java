@@ -0,0 +1,14 @@
+package com.github.ozanaaslan.lwjwl.web.error;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+
+/**
+ * Answers a request whose endpoint threw an exception of a registered type.
+ */
+@FunctionalInterface
+public interface ExceptionHandler<T extends Throwable> {
+
+    Response handle(T exception, EndpointController controller);
+
+}
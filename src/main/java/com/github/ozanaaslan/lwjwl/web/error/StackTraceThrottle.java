@@ -0,0 +1,67 @@
+package com.github.ozanaaslan.lwjwl.web.error;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.github.ozanaaslan.lwjwl.util.log.LogLevel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs the stack trace of an exception at most once per interval for each exception type and throwing
+ * location. The traces in between are counted and the count is reported with the next one.
+ */
+final class StackTraceThrottle {
+
+    /**
+     * Beyond this many distinct locations exceptions are told apart by type only.
+     */
+    private static final int MAX_KEYS = 1024;
+
+    private final Log log;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private volatile long intervalNanos;
+
+    StackTraceThrottle(Log log, long intervalNanos) {
+        this.log = log;
+        this.intervalNanos = intervalNanos;
+    }
+
+    void setIntervalNanos(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    void log(String message, Throwable t) {
+        if (!log.isEnabled(LogLevel.ERROR))
+            return;
+        String key = key(t);
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= MAX_KEYS)
+                key = t.getClass().getName();
+            window = windows.computeIfAbsent(key, k -> new Window());
+        }
+        long now = System.nanoTime();
+        long next = window.next.get();
+        if (now - next < 0 || !window.next.compareAndSet(next, now + intervalNanos)) {
+            window.suppressed.incrementAndGet();
+            return;
+        }
+        int suppressed = window.suppressed.getAndSet(0);
+        log.error(suppressed == 0 ? message
+                : message + " (" + suppressed + " more like it since the last trace)", t);
+    }
+
+    private static String key(Throwable t) {
+        StackTraceElement[] trace = t.getStackTrace();
+        return trace.length == 0 ? t.getClass().getName() : t.getClass().getName() + '@' + trace[0];
+    }
+
+    private static final class Window {
+
+        final AtomicLong next = new AtomicLong(System.nanoTime());
+        final AtomicInteger suppressed = new AtomicInteger();
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.github.ozanaaslan.lwjwl.web.file;
+
+import com.github.ozanaaslan.lwjwl.server.FileTransfer;
+import com.github.ozanaaslan.lwjwl.util.HttpDates;
+import com.github.ozanaaslan.lwjwl.web.compression.Compression;
+import com.github.ozanaaslan.lwjwl.web.compression.ContentEncoder;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Validators;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Sends files with their Content-Type, Last-Modified, ETag and single byte ranges (206/416), and answers
+ * conditional requests for a file the client already has with 304. Compressible files are compressed
+ * when a {@link Compression} is given and the client accepts it.
+ * The body goes out with {@link FileChannel#transferTo}; on engines whose exchange is a
+ * {@link FileTransfer} that is a zero-copy transfer from the page cache into the socket.
+ */
+public final class FileSender {
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private FileSender() {
+    }
+
+    public static void send(HttpExchange exchange, File file, int status, boolean download) throws IOException {
+        send(exchange, file, status, download, null);
+    }
+
+    /**
+     * @param compression used for compressible files unless a range is requested; may be null
+     */
+    public static void send(HttpExchange exchange, File file, int status, boolean download,
+                            Compression compression) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+        if (attributes == null || !attributes.isRegularFile()) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Headers headers = exchange.getResponseHeaders();
+        if (!headers.containsKey("Content-Type"))
+            headers.set("Content-Type", ContentType.forFileName(file.getName()).getContentType());
+        headers.set("Last-Modified", HttpDates.format(lastModified));
+        headers.set("Accept-Ranges", "bytes");
+        String etag = headers.getFirst("ETag");
+        if (etag == null)
+            headers.set("ETag", etag = Validators.etag(lastModified, size));
+        if (status == 200 && Validators.notModified(exchange, etag, lastModified)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (download)
+            headers.set("Content-Disposition", "attachment; filename=\"" + file.getName().replace("\"", "") + "\"");
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (compression != null && status == 200 && range == null && size >= compression.getMinSize()) {
+            ContentEncoder encoder = compression.select(exchange);
+            if (encoder != null) {
+                sendCompressed(exchange, file, size, etag, compression, encoder);
+                return;
+            }
+        }
+
+        long start = 0;
+        long length = size;
+        if (status == 200 && range != null && ifRangeMatches(exchange, etag, lastModified)) {
+            long[] bounds = range(range, size);
+            if (bounds == UNSATISFIABLE) {
+                headers.set("Content-Range", "bytes */" + size);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                status = 206;
+                headers.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        sendRegion(exchange, path, status, start, length);
+    }
+
+    private static void sendRegion(HttpExchange exchange, Path path, int status, long start, long length) throws IOException {
+        if (length == 0 || "HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Long.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            exchange.sendResponseHeaders(status, length);
+            if (exchange instanceof FileTransfer)
+                ((FileTransfer) exchange).transferFrom(channel, start, length);
+            else
+                transfer(channel, start, length, exchange.getResponseBody());
+        }
+        exchange.close();
+    }
+
+    /**
+     * Sends a precompressed sibling if there is one, a cached compressed copy of files up to the cache's
+     * entry size, and compresses larger files while streaming them.
+     */
+    private static void sendCompressed(HttpExchange exchange, File file, long size, String etag,
+                                       Compression compression, ContentEncoder encoder) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Encoding", encoder.getName());
+        headers.set("ETag", Compression.weak(etag));
+        headers.remove("Accept-Ranges");
+
+        File sibling = compression.precompressedFile(file, encoder);
+        if (sibling != null) {
+            sendRegion(exchange, sibling.toPath(), 200, 0, sibling.length());
+            return;
+        }
+        if (size <= compression.getMaxCachedSize()) {
+            byte[] encoded = compression.cached(file.getAbsolutePath() + etag, encoder, () -> read(file));
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                headers.set("Content-Length", Integer.toString(encoded.length));
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, encoded.length);
+                exchange.getResponseBody().write(encoded);
+            }
+            exchange.close();
+            return;
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = encoder.wrap(exchange.getResponseBody())) {
+            Files.copy(file.toPath(), out);
+        }
+        exchange.close();
+    }
+
+    private static byte[] read(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void transfer(FileChannel file, long position, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        for (long end = position + count; position < end; ) {
+            long written = file.transferTo(position, end - position, target);
+            if (written <= 0)
+                throw new EOFException("File ended before " + end);
+            position += written;
+        }
+    }
+
+    /**
+     * A Range is only honored if the representation the client holds is still current.
+     */
+    private static boolean ifRangeMatches(HttpExchange exchange, String etag, long lastModified) {
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return Validators.matches(ifRange, etag, true);
+        long date = HttpDates.parse(ifRange);
+        return date >= 0 && lastModified / 1000 <= date / 1000;
+    }
+
+    /**
+     * Parses a single byte range. Multiple ranges are not supported and answered with the whole file.
+     *
+     * @return the first and last byte, {@link #UNSATISFIABLE}, or null to ignore the header
+     */
+    static long[] range(String header, long size) {
+        if (!header.startsWith("bytes="))
+            return null;
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0)
+            return null;
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || size == 0)
+                    return UNSATISFIABLE;
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long first = Long.parseLong(spec.substring(0, dash));
+            String lastPart = spec.substring(dash + 1);
+            long last = lastPart.isEmpty() ? size - 1 : Math.min(Long.parseLong(lastPart), size - 1);
+            if (first >= size)
+                return UNSATISFIABLE;
+            if (first < 0 || last < first)
+                return null;
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.ozanaaslan.lwjwl.web.file;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.CacheControl;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * Serves the files below a directory under a URL prefix, e.g. {@code /assets/css/site.css} from
+ * {@code ./public/css/site.css}. Paths that lead outside the directory, also through symbolic links,
+ * and hidden files (names starting with a dot) are never served.
+ */
+public class StaticFiles {
+
+    @Getter
+    private final String prefix;
+    @Getter
+    private final Path root;
+    private final Path realRoot;
+    /**
+     * Served for requests to a directory; null answers them with 404.
+     */
+    @Getter
+    @Setter
+    private String indexFile = "index.html";
+    /**
+     * Sent with every file of this mount; none by default, which leaves freshness to the client's heuristics.
+     */
+    @Getter
+    @Setter
+    private CacheControl cacheControl;
+
+    @SneakyThrows
+    public StaticFiles(String prefix, Path root) {
+        String normalized = prefix.startsWith("/") ? prefix : "/" + prefix;
+        while (normalized.endsWith("/"))
+            normalized = normalized.substring(0, normalized.length() - 1);
+        this.prefix = normalized;
+        this.root = root.toAbsolutePath().normalize();
+        this.realRoot = this.root.toRealPath();
+    }
+
+    /**
+     * @return the file for a request path, or null if it is not below this mount or does not exist
+     */
+    public File resolve(String requestPath) {
+        if (!requestPath.startsWith(prefix))
+            return null;
+        if (requestPath.length() > prefix.length() && requestPath.charAt(prefix.length()) != '/')
+            return null;
+        String relative = requestPath.substring(prefix.length());
+        int start = 0;
+        while (start < relative.length() && relative.charAt(start) == '/')
+            start++;
+        relative = relative.substring(start);
+        if (relative.indexOf('\0') >= 0 || relative.startsWith(".") || relative.contains("/."))
+            return null;
+
+        Path candidate;
+        try {
+            candidate = root.resolve(relative).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        if (!candidate.startsWith(root))
+            return null;
+        if (Files.isDirectory(candidate)) {
+            if (indexFile == null)
+                return null;
+            candidate = candidate.resolve(indexFile);
+        }
+        if (!Files.isRegularFile(candidate))
+            return null;
+        try {
+            if (!candidate.toRealPath().startsWith(realRoot))
+                return null;
+        } catch (IOException e) {
+            return null;
+        }
+        return candidate.toFile();
+    }
+
+    /**
+     * @return a response for the file at the request path, or null if there is none
+     */
+    public Response respond(String requestPath) {
+        File file = resolve(requestPath);
+        return file == null ? null : new Response(200, false, file).withCacheControl(cacheControl);
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.ozanaaslan.lwjwl.web.metrics;
+
+import com.github.ozanaaslan.lwjwl.LWJWL;
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.ContentType;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.Route;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request metrics of the server, kept per route template so the number of series stays bounded. Recording uses
+ * only adders and atomic arrays: no locks and no allocation once a route has been seen.
+ * Requests that matched no route, such as static files and 404s, are counted under {@code (unmatched)}.
+ */
+public class Metrics {
+
+    private static final String UNMATCHED = "(unmatched)";
+    /**
+     * Bucket bounds of the exported histograms, in seconds.
+     */
+    private static final double[] BOUNDS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final LongAdder inFlight = new LongAdder();
+    private final AtomicLongArray statuses = new AtomicLongArray(600);
+    private final Map<Route, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final RouteMetrics unmatched = new RouteMetrics(UNMATCHED, "*");
+
+    /**
+     * Called when a request comes in, before it is routed.
+     */
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * Called once the request has been matched to a route.
+     */
+    public void routeStarted(Route route) {
+        of(route).started();
+    }
+
+    /**
+     * @param route the route the request was matched to, or null
+     */
+    public void requestCompleted(Route route, int status, long nanos) {
+        inFlight.decrement();
+        if (status >= 0 && status < 600)
+            statuses.incrementAndGet(status);
+        if (route == null)
+            unmatched.completed(status, nanos, false);
+        else
+            of(route).completed(status, nanos, true);
+    }
+
+    public RouteMetrics of(Route route) {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null)
+            metrics = routes.computeIfAbsent(route, r -> new RouteMetrics(r.getPath(),
+                    r.isGeneric() ? "*" : String.join(",", r.getVerbs())));
+        return metrics;
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public long getResponses(int status) {
+        return statuses.get(status);
+    }
+
+    /**
+     * The metrics in the Prometheus text exposition format.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP lwjwl_requests_in_flight Requests being handled right now.\n")
+                .append("# TYPE lwjwl_requests_in_flight gauge\n")
+                .append("lwjwl_requests_in_flight ").append(inFlight.sum()).append('\n');
+
+        out.append("# HELP lwjwl_responses_total Responses sent, by status code.\n")
+                .append("# TYPE lwjwl_responses_total counter\n");
+        for (int status = 0; status < 600; status++) {
+            long count = statuses.get(status);
+            if (count > 0)
+                out.append("lwjwl_responses_total{code=\"").append(status).append("\"} ").append(count).append('\n');
+        }
+
+        RouteMetrics[] all = routes.values().toArray(new RouteMetrics[0]);
+        out.append("# HELP lwjwl_route_requests_in_flight Requests being handled right now, by route and method.\n")
+                .append("# TYPE lwjwl_route_requests_in_flight gauge\n");
+        for (RouteMetrics route : all)
+            series(out, "lwjwl_route_requests_in_flight", route, null, null).append(route.getInFlight()).append('\n');
+
+        out.append("# HELP lwjwl_route_responses_total Responses sent, by route, method and status class.\n")
+                .append("# TYPE lwjwl_route_responses_total counter\n");
+        routeResponses(out, unmatched);
+        for (RouteMetrics route : all)
+            routeResponses(out, route);
+
+        out.append("# HELP lwjwl_route_duration_seconds Time until the handler finished, by route and method.\n")
+                .append("# TYPE lwjwl_route_duration_seconds histogram\n");
+        histogram(out, unmatched);
+        for (RouteMetrics route : all)
+            histogram(out, route);
+        return out.toString();
+    }
+
+    private static void routeResponses(StringBuilder out, RouteMetrics route) {
+        for (int statusClass = 1; statusClass <= 5; statusClass++) {
+            long count = route.getResponses(statusClass);
+            if (count > 0)
+                series(out, "lwjwl_route_responses_total", route, "status", statusClass + "xx")
+                        .append(count).append('\n');
+        }
+    }
+
+    /**
+     * Folds the fine buckets into the exported ones. A fine bucket counts towards a bound once all of it lies
+     * below the bound, so the exported counts may be up to one fine bucket short.
+     */
+    private static void histogram(StringBuilder out, RouteMetrics route) {
+        LatencyHistogram latency = route.getLatency();
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++)
+            total += counts[i] = latency.count(i);
+        if (total == 0)
+            return;
+        int bucket = 0;
+        long cumulative = 0;
+        for (double bound : BOUNDS) {
+            long micros = Math.round(bound * 1_000_000);
+            while (bucket < counts.length && LatencyHistogram.upperBound(bucket) <= micros)
+                cumulative += counts[bucket++];
+            series(out, "lwjwl_route_duration_seconds_bucket", route, "le", Double.toString(bound))
+                    .append(cumulative).append('\n');
+        }
+        series(out, "lwjwl_route_duration_seconds_bucket", route, "le", "+Inf").append(total).append('\n');
+        series(out, "lwjwl_route_duration_seconds_sum", route, null, null)
+                .append(latency.getSumNanos() / 1e9).append('\n');
+        series(out, "lwjwl_route_duration_seconds_count", route, null, null).append(total).append('\n');
+    }
+
+    private static StringBuilder series(StringBuilder out, String name, RouteMetrics route, String label, String value) {
+        out.append(name).append("{route=\"");
+        escape(out, route.getName());
+        out.append("\",method=\"").append(route.getMethod()).append('"');
+        if (label != null)
+            out.append(',').append(label).append("=\"").append(value).append('"');
+        return out.append("} ");
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"')
+                out.append('\\').append(c);
+            else if (c == '\n')
+                out.append("\\n");
+            else
+                out.append(c);
+        }
+    }
+
+    /**
+     * The scrape endpoint registered by {@link LWJWL#exposeMetrics(String)}.
+     */
+    public static Response scrape(EndpointController controller) {
+        Metrics metrics = LWJWL.getLwjwl().getMetrics();
+        Response response = new Response(200, ContentType.TEXT_PLAIN,
+                metrics.toPrometheus().getBytes(StandardCharsets.UTF_8));
+        response.setAutoETag(false);
+        return response;
+    }
+
+}
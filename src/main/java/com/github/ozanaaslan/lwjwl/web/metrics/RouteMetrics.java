@@ -0,0 +1,53 @@
+package com.github.ozanaaslan.lwjwl.web.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one route: responses by status class, requests in progress and the latency histogram.
+ * Routes are told apart by path and method, as several routes may share a path with different verbs.
+ */
+public final class RouteMetrics {
+
+    @Getter
+    private final String name;
+    /**
+     * The verbs of the route joined by commas, or {@code *} if it accepts any.
+     */
+    @Getter
+    private final String method;
+    private final AtomicLongArray statusClasses = new AtomicLongArray(6);
+    private final LongAdder inFlight = new LongAdder();
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    RouteMetrics(String name, String method) {
+        this.name = name;
+        this.method = method;
+    }
+
+    void started() {
+        inFlight.increment();
+    }
+
+    void completed(int status, long nanos, boolean started) {
+        if (started)
+            inFlight.decrement();
+        statusClasses.incrementAndGet(status >= 100 && status < 600 ? status / 100 : 0);
+        latency.record(nanos);
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @param statusClass 1 to 5 for 1xx to 5xx, 0 for anything else
+     */
+    public long getResponses(int statusClass) {
+        return statusClasses.get(statusClass);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.github.ozanaaslan.lwjwl.web.sse;
+
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One daemon thread for all open event streams: once a second it sends heartbeats to the streams that
+ * are due, and it runs the close listeners so they never run on the engine's threads.
+ */
+final class Heartbeat {
+
+    private static final Log LOG = Log.get(SseEmitter.class);
+
+    private static final Set<SseEmitter> EMITTERS = ConcurrentHashMap.newKeySet();
+    private static volatile ScheduledExecutorService scheduler;
+
+    private Heartbeat() {
+    }
+
+    static void register(SseEmitter emitter) {
+        EMITTERS.add(emitter);
+        scheduler();
+    }
+
+    static void unregister(SseEmitter emitter) {
+        EMITTERS.remove(emitter);
+    }
+
+    static void execute(Runnable task) {
+        scheduler().execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.warn("Close listener failed", e);
+            }
+        });
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null)
+            return current;
+        synchronized (Heartbeat.class) {
+            if (scheduler == null) {
+                ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+                    Thread thread = new Thread(task, "lwjwl-sse-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(Heartbeat::tick, 1, 1, TimeUnit.SECONDS);
+                scheduler = executor;
+            }
+            return scheduler;
+        }
+    }
+
+    private static void tick() {
+        long now = System.nanoTime();
+        for (SseEmitter emitter : EMITTERS)
+            emitter.heartbeat(now);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.github.ozanaaslan.lwjwl.web.sse;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of event streams that receive the same events. Each event is encoded once and the same bytes
+ * are written to every stream; streams leave the group on their own when they close.
+ * <p>
+ * A broadcast never waits for a slow client: a stream that has too much unread data queued already is
+ * closed instead, so one stalled reader cannot hold up everybody else. This needs an engine that can
+ * refuse a write; see {@link SseEmitter}.
+ */
+public class SseBroadcaster {
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+    public SseEmitter add(SseEmitter emitter) {
+        emitters.add(emitter);
+        emitter.onClose(() -> emitters.remove(emitter));
+        return emitter;
+    }
+
+    public void remove(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    /**
+     * @return the number of streams the event was written to
+     */
+    public int broadcast(String event, String data) {
+        return broadcast(SseEmitter.encode(null, event, data));
+    }
+
+    public int broadcast(String id, String event, String data) {
+        return broadcast(SseEmitter.encode(id, event, data));
+    }
+
+    public int broadcast(byte[] frame) {
+        int delivered = 0;
+        for (SseEmitter emitter : emitters) {
+            if (emitter.offerEncoded(frame))
+                delivered++;
+            else
+                emitters.remove(emitter);
+        }
+        return delivered;
+    }
+
+    public int size() {
+        return emitters.size();
+    }
+
+    public void close() {
+        for (SseEmitter emitter : emitters)
+            emitter.close();
+        emitters.clear();
+    }
+
+}
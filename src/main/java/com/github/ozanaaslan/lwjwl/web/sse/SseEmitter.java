@@ -0,0 +1,268 @@
+package com.github.ozanaaslan.lwjwl.web.sse;
+
+import com.github.ozanaaslan.lwjwl.server.ConnectionEvents;
+import com.github.ozanaaslan.lwjwl.server.ResponseOffer;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One open server-sent events stream. Events may be sent from any thread; each goes out as a single write
+ * and is flushed at once. The handler that opened the stream does not have to stay around, so an open
+ * stream costs a connection and this object, not a thread.
+ * <p>
+ * A stream that has been quiet for the heartbeat interval gets a comment line, which keeps proxies from
+ * timing it out and finds clients that went away without a word. The emitter closes when {@link #close()}
+ * is called, when a write fails, or when the engine reports the connection closed.
+ * <p>
+ * Heartbeats and {@link SseBroadcaster broadcasts} never wait for a slow client: a stream with too much
+ * unsent data queued already is closed instead. That takes an engine whose exchanges can refuse a write
+ * ({@link ResponseOffer}), which the JDK engine's cannot. There every write blocks until the client reads,
+ * so one stalled client holds up the heartbeats of all streams; serve event streams from the NIO engine.
+ */
+public final class SseEmitter {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final HttpExchange exchange;
+    private final OutputStream out;
+    private final ResponseOffer responseOffer;
+    private final long heartbeatNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private volatile long lastWrite = System.nanoTime();
+
+    private SseEmitter(HttpExchange exchange, Duration heartbeat) {
+        this.exchange = exchange;
+        this.out = exchange.getResponseBody();
+        this.responseOffer = exchange instanceof ResponseOffer ? (ResponseOffer) exchange : null;
+        this.heartbeatNanos = heartbeat == null ? 0 : heartbeat.toNanos();
+    }
+
+    /**
+     * Sends the event stream headers and returns the emitter writing to it.
+     *
+     * @param heartbeat how long the stream may stay quiet before a comment is sent; null or zero sends none
+     */
+    public static SseEmitter open(HttpExchange exchange, int status, Duration heartbeat) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(status, 0);
+        SseEmitter emitter = new SseEmitter(exchange, heartbeat);
+        // Flushing the headers right away lets the client know the stream is open before the first event
+        emitter.out.flush();
+        if (exchange instanceof ConnectionEvents)
+            ((ConnectionEvents) exchange).onConnectionClosed(emitter::abort);
+        Heartbeat.register(emitter);
+        return emitter;
+    }
+
+    /**
+     * Encodes an event in the wire format. Useful to encode once and {@link #sendEncoded(byte[]) send} to many streams.
+     *
+     * @param id    the event id, or null
+     * @param event the event name, or null for the default "message"
+     * @param data  the payload; every line becomes its own data field
+     */
+    public static byte[] encode(String id, String event, String data) {
+        StringBuilder frame = new StringBuilder(32 + (data == null ? 0 : data.length()));
+        if (id != null)
+            field(frame, "id", id);
+        if (event != null)
+            field(frame, "event", event);
+        if (data != null) {
+            int start = 0;
+            for (int i = 0; i < data.length(); i++) {
+                char c = data.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    field(frame, "data", data.substring(start, i));
+                    if (c == '\r' && i + 1 < data.length() && data.charAt(i + 1) == '\n')
+                        i++;
+                    start = i + 1;
+                }
+            }
+            field(frame, "data", data.substring(start));
+        }
+        return frame.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void field(StringBuilder frame, String name, String value) {
+        frame.append(name).append(": ");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Line breaks would end the field early, so ids and names lose them
+            if (c != '\n' && c != '\r')
+                frame.append(c);
+        }
+        frame.append('\n');
+    }
+
+    /**
+     * Sends an unnamed event.
+     *
+     * @return false if the stream is closed
+     */
+    public boolean send(String data) {
+        return sendEncoded(encode(null, null, data));
+    }
+
+    public boolean send(String event, String data) {
+        return sendEncoded(encode(null, event, data));
+    }
+
+    public boolean send(String id, String event, String data) {
+        return sendEncoded(encode(id, event, data));
+    }
+
+    /**
+     * Tells the client how long to wait before reconnecting once the stream is lost.
+     */
+    public boolean retry(Duration delay) {
+        return sendEncoded(("retry: " + delay.toMillis() + "\n\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Sends a comment, which clients ignore.
+     */
+    public boolean comment(String text) {
+        StringBuilder frame = new StringBuilder(text.length() + 4);
+        for (String line : text.split("\r\n|\r|\n", -1))
+            frame.append(':').append(line).append('\n');
+        return sendEncoded(frame.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a frame produced by {@link #encode(String, String, String)}.
+     *
+     * @return false if the stream is closed or the write failed, in which case the stream is closed now
+     */
+    public boolean sendEncoded(byte[] frame) {
+        if (closed.get())
+            return false;
+        lock.lock();
+        try {
+            return write(frame);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(byte[] frame) {
+        if (closed.get())
+            return false;
+        try {
+            out.write(frame);
+            out.flush();
+            lastWrite = System.nanoTime();
+            return true;
+        } catch (IOException e) {
+            abort();
+            return false;
+        }
+    }
+
+    /**
+     * Sends the frame unless too much is waiting for the client already, in which case the stream is closed.
+     * On an engine that cannot refuse a write this blocks like {@link #sendEncoded(byte[])}.
+     *
+     * @return false if the stream is closed
+     */
+    boolean offerEncoded(byte[] frame) {
+        if (closed.get())
+            return false;
+        lock.lock();
+        try {
+            return offer(frame);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean offer(byte[] frame) {
+        if (responseOffer == null)
+            return write(frame);
+        if (closed.get())
+            return false;
+        try {
+            if (responseOffer.offer(frame)) {
+                lastWrite = System.nanoTime();
+                return true;
+            }
+        } catch (IOException ignored) {
+        }
+        abort();
+        return false;
+    }
+
+    /**
+     * Sends a heartbeat if the stream has been quiet long enough. Skipped while another thread is writing,
+     * since that write keeps the stream alive just as well.
+     */
+    void heartbeat(long now) {
+        if (heartbeatNanos <= 0 || now - lastWrite < heartbeatNanos || closed.get() || !lock.tryLock())
+            return;
+        try {
+            offer(HEARTBEAT);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the listener once the stream is closed, whoever closed it. Listeners run on a shared
+     * background thread and should not block.
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+        if (closed.get() && closeListeners.remove(listener))
+            Heartbeat.execute(listener);
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Ends the stream properly, letting the connection serve further requests.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true))
+            return;
+        lock.lock();
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+        exchange.close();
+        finish();
+    }
+
+    /**
+     * Closes after the client went away; there is no point in finishing the body.
+     */
+    private void abort() {
+        if (!closed.compareAndSet(false, true))
+            return;
+        exchange.close();
+        finish();
+    }
+
+    private void finish() {
+        Heartbeat.unregister(this);
+        for (Runnable listener : closeListeners)
+            if (closeListeners.remove(listener))
+                Heartbeat.execute(listener);
+    }
+
+}
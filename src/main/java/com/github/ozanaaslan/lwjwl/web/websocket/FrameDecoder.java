@@ -0,0 +1,227 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Incremental parser for the frames a client sends. Takes whatever bytes have arrived, unmasks payloads as they
+ * come in and reassembles fragmented messages, so a frame never has to be in one buffer.
+ */
+final class FrameDecoder {
+
+    interface Listener {
+
+        void onText(String message);
+
+        void onBinary(byte[] message);
+
+        void onPing(byte[] payload);
+
+        void onPong(byte[] payload);
+
+        void onClose(int code, String reason);
+
+    }
+
+    private enum State {
+        HEADER, PAYLOAD
+    }
+
+    private final Listener listener;
+    private final int maxMessageSize;
+
+    private State state = State.HEADER;
+    private boolean closed;
+    private final byte[] header = new byte[14];
+    private int headerLength;
+
+    private boolean fin;
+    private int opcode;
+    private final byte[] mask = new byte[4];
+    private long remaining;
+    private int maskIndex;
+
+    /**
+     * Opcode of the fragmented message being reassembled, or -1.
+     */
+    private int messageOpcode = -1;
+    private byte[] message = new byte[256];
+    private int messageLength;
+    private byte[] control;
+    private int controlLength;
+
+    FrameDecoder(Listener listener, int maxMessageSize) {
+        this.listener = listener;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    /**
+     * Consumes the buffer up to a close frame; anything after it is left unread.
+     */
+    void decode(ByteBuffer in) throws FrameException {
+        while (!closed && in.hasRemaining()) {
+            if (state == State.HEADER) {
+                if (!readHeader(in))
+                    return;
+                if (remaining == 0)
+                    endOfFrame();
+                else
+                    state = State.PAYLOAD;
+            } else {
+                readPayload(in);
+                if (remaining == 0) {
+                    state = State.HEADER;
+                    endOfFrame();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true once the header is complete
+     */
+    private boolean readHeader(ByteBuffer in) throws FrameException {
+        while (in.hasRemaining()) {
+            header[headerLength++] = in.get();
+            if (headerLength < 2)
+                continue;
+            // An unmasked frame has no mask to wait for, so it is refused as soon as its second byte is in
+            if (headerLength == 2 && (header[1] & 0x80) == 0)
+                throw new FrameException(1002, "Client frames must be masked");
+            int lengthBytes = (header[1] & 0x7F) == 126 ? 2 : (header[1] & 0x7F) == 127 ? 8 : 0;
+            if (headerLength == 2 + lengthBytes + 4) {
+                parseHeader(lengthBytes);
+                headerLength = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parseHeader(int lengthBytes) throws FrameException {
+        fin = (header[0] & 0x80) != 0;
+        opcode = header[0] & 0x0F;
+        if ((header[0] & 0x70) != 0)
+            throw new FrameException(1002, "Reserved bits set without an extension");
+        long length = header[1] & 0x7F;
+        if (lengthBytes > 0) {
+            length = 0;
+            for (int i = 0; i < lengthBytes; i++)
+                length = (length << 8) | (header[2 + i] & 0xFF);
+            if (length < 0)
+                throw new FrameException(1002, "Frame length out of range");
+        }
+        System.arraycopy(header, 2 + lengthBytes, mask, 0, 4);
+        maskIndex = 0;
+        remaining = length;
+
+        if (opcode >= 0x8) {
+            if (opcode > Frames.PONG)
+                throw new FrameException(1002, "Unknown control opcode " + opcode);
+            if (!fin || length > 125)
+                throw new FrameException(1002, "Control frames must be final and at most 125 bytes");
+            control = new byte[(int) length];
+            controlLength = 0;
+            return;
+        }
+        if (opcode == Frames.CONTINUATION) {
+            if (messageOpcode == -1)
+                throw new FrameException(1002, "Continuation without a message to continue");
+        } else if (opcode == Frames.TEXT || opcode == Frames.BINARY) {
+            if (messageOpcode != -1)
+                throw new FrameException(1002, "New message before the previous one was finished");
+            messageOpcode = opcode;
+            messageLength = 0;
+        } else {
+            throw new FrameException(1002, "Unknown opcode " + opcode);
+        }
+        if (messageLength + length > maxMessageSize)
+            throw new FrameException(1009, "Message exceeds " + maxMessageSize + " bytes");
+    }
+
+    private void readPayload(ByteBuffer in) {
+        int n = (int) Math.min(in.remaining(), remaining);
+        byte[] target;
+        int offset;
+        if (opcode >= 0x8) {
+            target = control;
+            offset = controlLength;
+            controlLength += n;
+        } else {
+            ensureCapacity(messageLength + n);
+            target = message;
+            offset = messageLength;
+            messageLength += n;
+        }
+        in.get(target, offset, n);
+        for (int i = 0; i < n; i++)
+            target[offset + i] ^= mask[(maskIndex + i) & 3];
+        maskIndex = (maskIndex + n) & 3;
+        remaining -= n;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > message.length)
+            message = Arrays.copyOf(message, Math.max(capacity, Math.min(message.length * 2, maxMessageSize)));
+    }
+
+    private void endOfFrame() throws FrameException {
+        if (opcode >= 0x8) {
+            byte[] payload = control;
+            control = null;
+            if (opcode == Frames.PING)
+                listener.onPing(payload);
+            else if (opcode == Frames.PONG)
+                listener.onPong(payload);
+            else
+                close(payload);
+            return;
+        }
+        if (!fin)
+            return;
+        byte[] data = Arrays.copyOf(message, messageLength);
+        int type = messageOpcode;
+        messageOpcode = -1;
+        messageLength = 0;
+        if (message.length > 64 * 1024)
+            message = new byte[256];
+        if (type == Frames.TEXT)
+            listener.onText(utf8(data, 0, data.length));
+        else
+            listener.onBinary(data);
+    }
+
+    private void close(byte[] payload) throws FrameException {
+        closed = true;
+        if (payload.length == 0) {
+            listener.onClose(1005, "");
+            return;
+        }
+        if (payload.length == 1)
+            throw new FrameException(1002, "Close frame with a one byte payload");
+        int code = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+        if (!validCloseCode(code))
+            throw new FrameException(1002, "Invalid close code " + code);
+        listener.onClose(code, utf8(payload, 2, payload.length - 2));
+    }
+
+    static boolean validCloseCode(int code) {
+        return (code >= 1000 && code <= 1003) || (code >= 1007 && code <= 1014) || (code >= 3000 && code <= 4999);
+    }
+
+    private static String utf8(byte[] bytes, int offset, int length) throws FrameException {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes, offset, length))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            throw new FrameException(1007, "Text is not valid UTF-8");
+        }
+    }
+
+}
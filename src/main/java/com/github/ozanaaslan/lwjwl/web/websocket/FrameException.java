@@ -0,0 +1,20 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import lombok.Getter;
+
+/**
+ * A violation of the protocol by the client, with the close code to answer it with.
+ */
+final class FrameException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final int code;
+
+    FrameException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+}
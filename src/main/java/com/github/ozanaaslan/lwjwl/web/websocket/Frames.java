@@ -0,0 +1,55 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes frames as the server sends them: final and unmasked.
+ */
+final class Frames {
+
+    static final int CONTINUATION = 0x0;
+    static final int TEXT = 0x1;
+    static final int BINARY = 0x2;
+    static final int CLOSE = 0x8;
+    static final int PING = 0x9;
+    static final int PONG = 0xA;
+
+    private Frames() {
+    }
+
+    static byte[] encode(int opcode, byte[] payload) {
+        int length = payload.length;
+        int header = length < 126 ? 2 : length <= 0xFFFF ? 4 : 10;
+        byte[] frame = new byte[header + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length < 126) {
+            frame[1] = (byte) length;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++)
+                frame[2 + i] = (byte) ((long) length >>> (56 - 8 * i));
+        }
+        System.arraycopy(payload, 0, frame, header, length);
+        return frame;
+    }
+
+    static byte[] text(String message) {
+        return encode(TEXT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] close(int code, String reason) {
+        byte[] text = reason == null ? new byte[0] : reason.getBytes(StandardCharsets.UTF_8);
+        // Control frames carry at most 125 bytes, two of which are the code
+        int length = Math.min(text.length, 123);
+        byte[] payload = new byte[2 + length];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(text, 0, payload, 2, length);
+        return encode(CLOSE, payload);
+    }
+
+}
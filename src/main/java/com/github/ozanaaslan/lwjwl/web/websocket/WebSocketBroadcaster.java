@@ -0,0 +1,62 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of sessions that receive the same messages. Each message is encoded into a frame once and the
+ * same bytes are written to every session; sessions leave the group on their own when they close.
+ * <p>
+ * A broadcast never waits for a slow client: a session that has too much unread data queued already is
+ * closed with 1013 instead, so one stalled reader cannot hold up everybody else.
+ */
+public class WebSocketBroadcaster {
+
+    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+
+    public WebSocketSession add(WebSocketSession session) {
+        sessions.add(session);
+        session.onClose(() -> sessions.remove(session));
+        return session;
+    }
+
+    public void remove(WebSocketSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * @return the number of sessions the message was written to
+     */
+    public int broadcast(String message) {
+        return broadcastEncoded(Frames.text(message));
+    }
+
+    public int broadcast(byte[] message) {
+        return broadcastEncoded(Frames.encode(Frames.BINARY, message));
+    }
+
+    private int broadcastEncoded(byte[] frame) {
+        int delivered = 0;
+        for (WebSocketSession session : sessions) {
+            if (session.offerEncoded(frame)) {
+                delivered++;
+                continue;
+            }
+            sessions.remove(session);
+            if (session.isOpen())
+                session.close(1013, "Too slow to keep up");
+        }
+        return delivered;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void close() {
+        for (WebSocketSession session : sessions)
+            session.close(1001, "Going away");
+        sessions.clear();
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.OnClose;
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.OnError;
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.OnMessage;
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.OnOpen;
+import com.github.ozanaaslan.lwjwl.web.websocket.annotation.WebSocket;
+import lombok.Getter;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class annotated with {@link WebSocket}, with its callbacks resolved into {@link MethodHandle}s on registration.
+ * Each callback declares which of the values it is called with it wants, in any order.
+ */
+public final class WebSocketEndpoint {
+
+    private static final MethodType SPREAD = MethodType.methodType(Object.class, Object[].class);
+
+    @Getter
+    private final String path;
+    @Getter
+    private final List<String> subprotocols;
+    @Getter
+    private final int maxMessageSize;
+    private final Callback open;
+    private final Callback text;
+    private final Callback binary;
+    private final Callback close;
+    private final Callback error;
+
+    private WebSocketEndpoint(Class<?> type, WebSocket socket) {
+        this.path = socket.value();
+        this.subprotocols = Collections.unmodifiableList(Arrays.asList(socket.subprotocols()));
+        this.maxMessageSize = socket.maxMessageSize();
+        Object[] instance = new Object[1];
+        Callback open = null, text = null, binary = null, close = null, error = null;
+        for (Method method : type.getMethods()) {
+            if (method.isAnnotationPresent(OnOpen.class))
+                open = only(open, Callback.of(method, OnOpen.class, instance));
+            if (method.isAnnotationPresent(OnMessage.class)) {
+                Callback message = Callback.of(method, OnMessage.class, instance);
+                if (message.takes(Value.TEXT))
+                    text = only(text, message);
+                else if (message.takes(Value.BINARY))
+                    binary = only(binary, message);
+                else
+                    throw new IllegalArgumentException("@OnMessage " + method.getName() + " takes neither a String nor a byte[]");
+            }
+            if (method.isAnnotationPresent(OnClose.class))
+                close = only(close, Callback.of(method, OnClose.class, instance));
+            if (method.isAnnotationPresent(OnError.class))
+                error = only(error, Callback.of(method, OnError.class, instance));
+        }
+        this.open = open;
+        this.text = text;
+        this.binary = binary;
+        this.close = close;
+        this.error = error;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class is not annotated or a callback cannot be called
+     */
+    public static WebSocketEndpoint of(Class<?> type) {
+        WebSocket socket = type.getDeclaredAnnotation(WebSocket.class);
+        if (socket == null)
+            throw new IllegalArgumentException(type.getName() + " has no @WebSocket");
+        return new WebSocketEndpoint(type, socket);
+    }
+
+    private static Callback only(Callback existing, Callback found) {
+        if (existing != null)
+            throw new IllegalArgumentException("Both " + existing.method.getName() + " and " + found.method.getName()
+                    + " handle the same event");
+        return found;
+    }
+
+    boolean acceptsText() {
+        return text != null;
+    }
+
+    boolean acceptsBinary() {
+        return binary != null;
+    }
+
+    Object onOpen(WebSocketSession session) throws InvocationTargetException {
+        return open == null ? null : open.invoke(session, null, null, 0, null);
+    }
+
+    Object onText(WebSocketSession session, String message) throws InvocationTargetException {
+        return text.invoke(session, message, null, 0, null);
+    }
+
+    Object onBinary(WebSocketSession session, byte[] message) throws InvocationTargetException {
+        return binary.invoke(session, null, message, 0, null);
+    }
+
+    Object onClose(WebSocketSession session, int code, String reason) throws InvocationTargetException {
+        return close == null ? null : close.invoke(session, reason, null, code, null);
+    }
+
+    /**
+     * @return false if the endpoint does not handle errors
+     */
+    boolean onError(WebSocketSession session, Throwable t) throws InvocationTargetException {
+        if (error == null)
+            return false;
+        error.invoke(session, null, null, 0, t);
+        return true;
+    }
+
+    private enum Value {
+        SESSION, TEXT, BINARY, CODE, ERROR
+    }
+
+    private static final class Callback {
+
+        private final Method method;
+        private final Value[] values;
+        private final MethodHandle handle;
+
+        private Callback(Method method, Value[] values, MethodHandle handle) {
+            this.method = method;
+            this.values = values;
+            this.handle = handle;
+        }
+
+        static Callback of(Method method, Class<? extends Annotation> annotation, Object[] instance) {
+            Class<?>[] types = method.getParameterTypes();
+            Value[] values = new Value[types.length];
+            for (int i = 0; i < types.length; i++) {
+                Class<?> type = types[i];
+                if (type == WebSocketSession.class)
+                    values[i] = Value.SESSION;
+                else if (type == String.class && (annotation == OnMessage.class || annotation == OnClose.class))
+                    values[i] = Value.TEXT;
+                else if (type == byte[].class && annotation == OnMessage.class)
+                    values[i] = Value.BINARY;
+                else if (type == int.class && annotation == OnClose.class)
+                    values[i] = Value.CODE;
+                else if (Throwable.class.isAssignableFrom(type) && annotation == OnError.class)
+                    values[i] = Value.ERROR;
+                else
+                    throw new IllegalArgumentException("@" + annotation.getSimpleName() + " " + method.getName()
+                            + " cannot take a " + type.getSimpleName());
+            }
+            MethodHandle handle = unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                if (instance[0] == null)
+                    instance[0] = instantiate(method.getDeclaringClass());
+                handle = handle.bindTo(instance[0]);
+            }
+            return new Callback(method, values, handle.asSpreader(Object[].class, types.length).asType(SPREAD));
+        }
+
+        boolean takes(Value value) {
+            for (Value v : values)
+                if (v == value)
+                    return true;
+            return false;
+        }
+
+        Object invoke(WebSocketSession session, String text, byte[] binary, int code, Throwable error)
+                throws InvocationTargetException {
+            Object[] arguments = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                switch (values[i]) {
+                    case SESSION: arguments[i] = session; break;
+                    case TEXT: arguments[i] = text; break;
+                    case BINARY: arguments[i] = binary; break;
+                    case CODE: arguments[i] = code; break;
+                    case ERROR: arguments[i] = error; break;
+                }
+            }
+            try {
+                return handle.invokeExact(arguments);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private static MethodHandle unreflect(Method method) {
+            try {
+                return MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                try {
+                    method.setAccessible(true);
+                    return MethodHandles.lookup().unreflect(method);
+                } catch (RuntimeException | IllegalAccessException inaccessible) {
+                    throw new IllegalArgumentException("Cannot access " + method, inaccessible);
+                }
+            }
+        }
+
+        private static Object instantiate(Class<?> type) {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(type.getName() + " needs a no-args constructor for its instance callbacks", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import com.github.ozanaaslan.lwjwl.server.RawConnection;
+import com.github.ozanaaslan.lwjwl.util.log.Log;
+import com.sun.net.httpserver.Headers;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One open WebSocket connection. Messages may be sent from any thread; each is written as one frame, and a
+ * sender is held back while the client is slow to read.
+ * <p>
+ * The endpoint's callbacks for a session run on the server's executor one after the other, in the order the
+ * frames arrived. When they fall behind, the session stops reading from the client until they catch up.
+ * Pings are answered by the server without involving the endpoint.
+ */
+public final class WebSocketSession {
+
+    private static final Log LOG = Log.get(WebSocketSession.class);
+    /**
+     * Reading stops once this many callbacks are waiting to run...
+     */
+    private static final int PAUSE_AT = 64;
+    /**
+     * ...and resumes when they are down to this many.
+     */
+    private static final int RESUME_AT = 16;
+    /**
+     * Callbacks run per turn on the executor before the session lets other tasks in.
+     */
+    private static final int BATCH = 64;
+
+    private final WebSocketEndpoint endpoint;
+    @Getter
+    private final URI requestURI;
+    @Getter
+    private final Headers requestHeaders;
+    @Getter
+    private final InetSocketAddress remoteAddress;
+    /**
+     * The subprotocol agreed on in the handshake, or null.
+     */
+    @Getter
+    private final String subprotocol;
+    @Getter
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private RawConnection connection;
+
+    private final AtomicBoolean closeSent = new AtomicBoolean();
+    private final AtomicBoolean closeDelivered = new AtomicBoolean();
+    private volatile int closeCode = 1006;
+    private volatile String closeReason = "";
+
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean paused = new AtomicBoolean();
+
+    WebSocketSession(WebSocketEndpoint endpoint, URI requestURI, Headers requestHeaders, InetSocketAddress remoteAddress,
+                     String subprotocol, Executor executor) {
+        this.endpoint = endpoint;
+        this.requestURI = requestURI;
+        this.requestHeaders = requestHeaders;
+        this.remoteAddress = remoteAddress;
+        this.subprotocol = subprotocol;
+        this.executor = executor;
+    }
+
+    RawConnection.Handler handler() {
+        return new Inbound();
+    }
+
+    void open(RawConnection connection) {
+        this.connection = connection;
+        enqueue(() -> reply(endpoint.onOpen(this)));
+    }
+
+    public boolean sendText(String message) {
+        return sendEncoded(Frames.text(message));
+    }
+
+    public boolean sendBinary(byte[] message) {
+        return sendEncoded(Frames.encode(Frames.BINARY, message));
+    }
+
+    public boolean ping(byte[] payload) {
+        if (payload.length > 125)
+            throw new IllegalArgumentException("Ping payloads are at most 125 bytes");
+        return sendEncoded(Frames.encode(Frames.PING, payload));
+    }
+
+    /**
+     * Sends a frame encoded by a {@link WebSocketBroadcaster} or an earlier call.
+     *
+     * @return false if the session is closed or the write failed
+     */
+    public boolean sendEncoded(byte[] frame) {
+        if (closeSent.get())
+            return false;
+        try {
+            connection.write(ByteBuffer.wrap(frame));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sends the frame unless too much is waiting for the client already.
+     */
+    boolean offerEncoded(byte[] frame) {
+        if (closeSent.get())
+            return false;
+        try {
+            return connection.offer(ByteBuffer.wrap(frame));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void close() {
+        close(1000, "");
+    }
+
+    /**
+     * Sends a close frame and closes the connection once it is written.
+     */
+    public void close(int code, String reason) {
+        if (!closeSent.compareAndSet(false, true))
+            return;
+        closeCode = code;
+        closeReason = reason == null ? "" : reason;
+        try {
+            connection.write(ByteBuffer.wrap(Frames.close(code, reason)));
+        } catch (IOException ignored) {
+        }
+        connection.close();
+    }
+
+    public boolean isOpen() {
+        return !closeSent.get() && connection.isOpen();
+    }
+
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    /**
+     * Runs the listener after the endpoint's close callback, on the same thread.
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    private void reply(Object result) {
+        if (result instanceof String)
+            sendText((String) result);
+        else if (result instanceof byte[])
+            sendBinary((byte[]) result);
+    }
+
+    private void enqueue(Callback callback) {
+        inbox.add(() -> {
+            try {
+                callback.run();
+            } catch (InvocationTargetException e) {
+                error(e.getCause());
+            } catch (RuntimeException e) {
+                error(e);
+            }
+        });
+        if (queued.incrementAndGet() >= PAUSE_AT && paused.compareAndSet(false, true))
+            connection.setReading(false);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!running.compareAndSet(false, true))
+            return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            inbox.clear();
+            queued.set(0);
+            LOG.warn("Executor rejected WebSocket callbacks for " + requestURI.getPath() + "; closing");
+            close(1013, "Server overloaded");
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Runnable task = inbox.poll();
+            if (task == null)
+                break;
+            task.run();
+            if (queued.decrementAndGet() <= RESUME_AT && paused.compareAndSet(true, false))
+                connection.setReading(true);
+        }
+        running.set(false);
+        if (!inbox.isEmpty())
+            schedule();
+    }
+
+    private void error(Throwable t) {
+        try {
+            if (endpoint.onError(this, t))
+                return;
+        } catch (InvocationTargetException e) {
+            t.addSuppressed(e.getCause());
+        }
+        LOG.warn("WebSocket callback failed for " + requestURI.getPath(), t);
+    }
+
+    private void closed() {
+        if (!closeDelivered.compareAndSet(false, true))
+            return;
+        closeSent.set(true);
+        enqueue(() -> {
+            try {
+                endpoint.onClose(this, closeCode, closeReason);
+            } finally {
+                for (Runnable listener : closeListeners)
+                    listener.run();
+            }
+        });
+    }
+
+    private interface Callback {
+
+        void run() throws InvocationTargetException;
+
+    }
+
+    /**
+     * Receives the client's bytes on the engine's thread.
+     */
+    private final class Inbound implements RawConnection.Handler, FrameDecoder.Listener {
+
+        private final FrameDecoder decoder = new FrameDecoder(this, endpoint.getMaxMessageSize());
+        private boolean done;
+
+        @Override
+        public void onRead(ByteBuffer data) {
+            if (done) {
+                data.position(data.limit());
+                return;
+            }
+            try {
+                decoder.decode(data);
+            } catch (FrameException e) {
+                fail(e.getCode(), e.getMessage());
+            }
+            if (done)
+                data.position(data.limit());
+        }
+
+        @Override
+        public void onClosed() {
+            closed();
+        }
+
+        @Override
+        public void onText(String message) {
+            if (!endpoint.acceptsText()) {
+                fail(1003, "Text messages are not accepted");
+                return;
+            }
+            enqueue(() -> reply(endpoint.onText(WebSocketSession.this, message)));
+        }
+
+        @Override
+        public void onBinary(byte[] message) {
+            if (!endpoint.acceptsBinary()) {
+                fail(1003, "Binary messages are not accepted");
+                return;
+            }
+            enqueue(() -> reply(endpoint.onBinary(WebSocketSession.this, message)));
+        }
+
+        @Override
+        public void onPing(byte[] payload) {
+            if (closeSent.get())
+                return;
+            try {
+                connection.write(ByteBuffer.wrap(Frames.encode(Frames.PONG, payload)));
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void onPong(byte[] payload) {
+        }
+
+        @Override
+        public void onClose(int code, String reason) {
+            done = true;
+            if (closeSent.compareAndSet(false, true)) {
+                closeCode = code;
+                closeReason = reason;
+                byte[] echo = code == 1005 ? Frames.encode(Frames.CLOSE, new byte[0]) : Frames.close(code, "");
+                try {
+                    connection.write(ByteBuffer.wrap(echo));
+                } catch (IOException ignored) {
+                }
+            }
+            connection.close();
+        }
+
+        private void fail(int code, String message) {
+            done = true;
+            close(code, message);
+        }
+    }
+}
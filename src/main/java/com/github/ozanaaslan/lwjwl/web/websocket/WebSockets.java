@@ -0,0 +1,119 @@
+package com.github.ozanaaslan.lwjwl.web.websocket;
+
+import com.github.ozanaaslan.lwjwl.server.ProtocolUpgrade;
+import com.github.ozanaaslan.lwjwl.server.RawConnection;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The opening handshake of RFC 6455.
+ */
+public final class WebSockets {
+
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private WebSockets() {
+    }
+
+    public static boolean isUpgradeRequest(HttpExchange exchange) {
+        String upgrade = exchange.getRequestHeaders().getFirst("Upgrade");
+        return upgrade != null && upgrade.equalsIgnoreCase("websocket");
+    }
+
+    /**
+     * Checks the handshake, answers it and hands the connection to a new session of the endpoint, whose
+     * callbacks then run on the executor. A request that cannot be upgraded gets an error response instead:
+     * 426 for an unsupported protocol version, 501 if the server engine cannot switch protocols.
+     */
+    public static void accept(HttpExchange exchange, WebSocketEndpoint endpoint, Executor executor) throws IOException {
+        Headers request = exchange.getRequestHeaders();
+        if (!(exchange instanceof ProtocolUpgrade)) {
+            reject(exchange, 501, "WebSockets need the NIO transport");
+            return;
+        }
+        String key = request.getFirst("Sec-WebSocket-Key");
+        if (!"GET".equals(exchange.getRequestMethod()) || !"HTTP/1.1".equals(exchange.getProtocol())
+                || !hasToken(request, "Connection", "upgrade") || !validKey(key)) {
+            reject(exchange, 400, "Invalid WebSocket handshake");
+            return;
+        }
+        if (!"13".equals(request.getFirst("Sec-WebSocket-Version"))) {
+            exchange.getResponseHeaders().set("Sec-WebSocket-Version", "13");
+            reject(exchange, 426, "Unsupported WebSocket version");
+            return;
+        }
+
+        String subprotocol = selectSubprotocol(request, endpoint.getSubprotocols());
+        Headers response = exchange.getResponseHeaders();
+        response.set("Upgrade", "websocket");
+        response.set("Connection", "Upgrade");
+        response.set("Sec-WebSocket-Accept", acceptKey(key));
+        if (subprotocol != null)
+            response.set("Sec-WebSocket-Protocol", subprotocol);
+
+        WebSocketSession session = new WebSocketSession(endpoint, exchange.getRequestURI(), request,
+                exchange.getRemoteAddress(), subprotocol, executor);
+        RawConnection connection = ((ProtocolUpgrade) exchange).upgrade(session.handler());
+        session.open(connection);
+        exchange.close();
+    }
+
+    static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private static boolean validKey(String key) {
+        if (key == null)
+            return false;
+        try {
+            return Base64.getDecoder().decode(key.trim()).length == 16;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasToken(Headers headers, String name, String token) {
+        List<String> values = headers.get(name);
+        if (values == null)
+            return false;
+        for (String value : values)
+            for (String part : value.split(","))
+                if (part.trim().equalsIgnoreCase(token))
+                    return true;
+        return false;
+    }
+
+    private static String selectSubprotocol(Headers request, List<String> supported) {
+        List<String> offered = request.get("Sec-WebSocket-Protocol");
+        if (offered == null || supported.isEmpty())
+            return null;
+        for (String candidate : supported)
+            for (String value : offered)
+                for (String part : value.split(","))
+                    if (part.trim().equals(candidate))
+                        return candidate;
+        return null;
+    }
+
+    private static void reject(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+}
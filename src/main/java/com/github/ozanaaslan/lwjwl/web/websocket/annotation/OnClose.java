@@ -0,0 +1,15 @@
+package com.github.ozanaaslan.lwjwl.web.websocket.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Called once after the connection is closed. May take the {@code WebSocketSession}, the {@code int} close code
+ * and the {@code String} reason; 1006 means the connection went away without a close frame.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnClose {
+}
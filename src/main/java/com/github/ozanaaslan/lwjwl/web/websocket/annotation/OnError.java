@@ -0,0 +1,15 @@
+package com.github.ozanaaslan.lwjwl.web.websocket.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Called with the {@code Throwable} when another callback of the endpoint throws. May take the {@code WebSocketSession}.
+ * The connection stays open.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnError {
+}
@@ -0,0 +1,16 @@
+package com.github.ozanaaslan.lwjwl.web.websocket.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Called for each complete message: a method taking a {@code String} gets text messages, one taking a
+ * {@code byte[]} gets binary messages. It may also take the {@code WebSocketSession}. A returned
+ * {@code String} or {@code byte[]} is sent back as a message of that kind.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnMessage {
+}
@@ -0,0 +1,28 @@
+package com.github.ozanaaslan.lwjwl.web.websocket.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Serves a class as a WebSocket endpoint on an exact path. Its {@link OnOpen}, {@link OnMessage}, {@link OnClose}
+ * and {@link OnError} methods are called on one instance created with the no-args constructor, or statically.
+ * Only the {@link com.github.ozanaaslan.lwjwl.server.Transport#NIO} engine can upgrade connections.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface WebSocket {
+
+    String value();
+
+    /**
+     * Subprotocols the endpoint speaks, in order of preference.
+     */
+    String[] subprotocols() default {};
+
+    /**
+     * Largest message in bytes, after reassembling fragments. Larger messages close the connection with 1009.
+     */
+    int maxMessageSize() default 1024 * 1024;
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import com.github.ozanaaslan.lwjwl.LWJWL;
+import com.github.ozanaaslan.lwjwl.server.ServerOptions;
+import com.github.ozanaaslan.lwjwl.util.log.LogLevel;
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Endpoint;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Param;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.GET;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.POST;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request through {@link EndpointController#handle(com.sun.net.httpserver.HttpExchange)}: context setup, routing,
+ * parameter binding, the endpoint and writing the response, on an in-memory exchange.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final URI HELLO = URI.create("/hello");
+    private static final URI USER = URI.create("/users/42?fields=name");
+    private static final URI PERSON = URI.create("/person");
+    private static final URI FORM = URI.create("/form");
+    private static final URI UNKNOWN = URI.create("/wp-login.php");
+
+    @org.openjdk.jmh.annotations.Param({"false", "true"})
+    private boolean metrics;
+
+    private LWJWL server;
+    private EndpointController controller;
+    private BenchmarkExchange exchange;
+    private BenchmarkExchange formExchange;
+
+    @Setup
+    public void setUp() {
+        server = new LWJWL(0, new ServerOptions().setLogLevel(LogLevel.WARN).setMetrics(metrics));
+        server.register(DispatchBenchmark.class);
+        controller = server.getCentralEndpointController();
+        exchange = new BenchmarkExchange();
+        formExchange = new BenchmarkExchange().body("name=Jane+Doe&age=31".getBytes(StandardCharsets.UTF_8));
+        formExchange.getRequestHeaders().set("Content-Type", "application/x-www-form-urlencoded");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Endpoint("/hello") @GET
+    public static Response hello(EndpointController controller) {
+        return Response.plain(200, "Hello");
+    }
+
+    @Endpoint("/users/{id}") @GET
+    public static Response user(EndpointController controller, @Param("id") long id) {
+        return Response.plain(200, "user " + id);
+    }
+
+    @Endpoint("/person") @GET
+    public static JsonBenchmark.Customer person(EndpointController controller) {
+        return JsonBenchmark.CUSTOMER;
+    }
+
+    @Endpoint("/form") @POST
+    public static Response form(EndpointController controller, @Param("name") String name, @Param("age") int age) {
+        return Response.plain(200, name + age);
+    }
+
+    @Benchmark
+    public int plain() throws IOException {
+        controller.handle(exchange.request("GET", HELLO));
+        return exchange.getResponseCode();
+    }
+
+    @Benchmark
+    public int pathVariable() throws IOException {
+        controller.handle(exchange.request("GET", USER));
+        return exchange.getResponseCode();
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        controller.handle(exchange.request("GET", PERSON));
+        return exchange.getResponseCode();
+    }
+
+    @Benchmark
+    public int formPost() throws IOException {
+        controller.handle(formExchange.request("POST", FORM));
+        return formExchange.getResponseCode();
+    }
+
+    @Benchmark
+    public int notFound() throws IOException {
+        controller.handle(exchange.request("GET", UNKNOWN));
+        return exchange.getResponseCode();
+    }
+}
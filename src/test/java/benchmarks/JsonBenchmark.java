@@ -0,0 +1,125 @@
+package benchmarks;
+
+import com.github.ozanaaslan.lwjwl.util.JsonParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonParser} on a nested object graph: a customer with an address, tags and a few orders of several items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    static final Customer CUSTOMER = customer();
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        json = JsonParser.toJson(CUSTOMER);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonParser.toJson(CUSTOMER);
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() {
+        return JsonParser.toJsonBytes(CUSTOMER);
+    }
+
+    @Benchmark
+    public Customer toObject() {
+        return JsonParser.toObject(json, Customer.class);
+    }
+
+    @Benchmark
+    public Customer toObjectFromStream() {
+        return JsonParser.toObject(new ByteArrayInputStream(bytes), Customer.class);
+    }
+
+    @Benchmark
+    public Object toObjectUntyped() {
+        return JsonParser.toObject(json);
+    }
+
+    public enum Status {
+        OPEN, SHIPPED, DELIVERED
+    }
+
+    public static class Address {
+        public String street;
+        public String city;
+        public String zip;
+    }
+
+    public static class Item {
+        public String sku;
+        public int quantity;
+        public double price;
+    }
+
+    public static class Order {
+        public long id;
+        public Status status;
+        public List<Item> items;
+    }
+
+    public static class Customer {
+        public long id;
+        public String name;
+        public String email;
+        public boolean active;
+        public Address address;
+        public List<String> tags;
+        public Map<String, String> attributes;
+        public List<Order> orders;
+    }
+
+    private static Customer customer() {
+        Customer customer = new Customer();
+        customer.id = 1234567890123L;
+        customer.name = "Jane \"JD\" Doe";
+        customer.email = "jane.doe@example.com";
+        customer.active = true;
+        customer.address = new Address();
+        customer.address.street = "221B Baker Street";
+        customer.address.city = "London";
+        customer.address.zip = "NW1 6XE";
+        customer.tags = List.of("premium", "newsletter", "beta");
+        customer.attributes = new LinkedHashMap<>();
+        customer.attributes.put("locale", "en_GB");
+        customer.attributes.put("currency", "GBP");
+        customer.orders = new ArrayList<>();
+        for (int o = 0; o < 5; o++) {
+            Order order = new Order();
+            order.id = 1000 + o;
+            order.status = Status.values()[o % 3];
+            order.items = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Item item = new Item();
+                item.sku = "SKU-" + o + "-" + i;
+                item.quantity = i + 1;
+                item.price = 9.99 * (i + 1);
+                order.items.add(item);
+            }
+            customer.orders.add(order);
+        }
+        return customer;
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * A keep-alive HTTP/1.1 client on a plain socket that sends prepared requests and reads the responses just far
+ * enough to find their end. It reconnects when the server closes the connection.
+ */
+final class LoadConnection implements AutoCloseable {
+
+    private final InetSocketAddress address;
+    private final StringBuilder line = new StringBuilder(128);
+    private final byte[] skip = new byte[16 * 1024];
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+
+    LoadConnection(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Sends a request and reads its response.
+     *
+     * @return the status code
+     * @throws IOException if the connection failed; the next call reconnects
+     */
+    int exchange(byte[] request) throws IOException {
+        if (socket == null)
+            connect();
+        try {
+            out.write(request);
+            out.flush();
+            return readResponse();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(30_000);
+        socket.connect(address, 5_000);
+        in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+        out = socket.getOutputStream();
+    }
+
+    private int readResponse() throws IOException {
+        String statusLine = readLine();
+        if (statusLine.length() < 12)
+            throw new IOException("Malformed status line: " + statusLine);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long length = -1;
+        boolean chunked = false;
+        boolean close = false;
+        String header;
+        while (!(header = readLine()).isEmpty()) {
+            int colon = header.indexOf(':');
+            if (colon < 0)
+                continue;
+            String name = header.substring(0, colon).trim();
+            String value = header.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length"))
+                length = Long.parseLong(value);
+            else if (name.equalsIgnoreCase("Transfer-Encoding"))
+                chunked = value.equalsIgnoreCase("chunked");
+            else if (name.equalsIgnoreCase("Connection"))
+                close = value.equalsIgnoreCase("close");
+        }
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(readLine().split(";", 2)[0].trim(), 16)) > 0) {
+                discard(size);
+                readLine();
+            }
+            while (!readLine().isEmpty()) ;
+        } else if (length > 0) {
+            discard(length);
+        } else if (length < 0 && status >= 200 && status != 204 && status != 304) {
+            // No length: the body ends with the connection
+            while (in.read(skip) != -1) ;
+            close = true;
+        }
+        if (close)
+            close();
+        return status;
+    }
+
+    private String readLine() throws IOException {
+        line.setLength(0);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1)
+                throw new EOFException("Connection closed by server");
+            if (b != '\r')
+                line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private void discard(long bytes) throws IOException {
+        while (bytes > 0) {
+            int read = in.read(skip, 0, (int) Math.min(skip.length, bytes));
+            if (read == -1)
+                throw new EOFException("Connection closed by server");
+            bytes -= read;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket == null)
+            return;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        socket = null;
+    }
+}
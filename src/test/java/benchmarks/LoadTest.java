@@ -0,0 +1,245 @@
+package benchmarks;
+
+import com.github.ozanaaslan.lwjwl.LWJWL;
+import com.github.ozanaaslan.lwjwl.server.ExecutionModel;
+import com.github.ozanaaslan.lwjwl.server.ServerOptions;
+import com.github.ozanaaslan.lwjwl.server.Transport;
+import com.github.ozanaaslan.lwjwl.util.log.LogLevel;
+import com.github.ozanaaslan.lwjwl.web.endpoint.EndpointController;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Endpoint;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.Param;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.GET;
+import com.github.ozanaaslan.lwjwl.web.endpoint.annotation.method.POST;
+import com.github.ozanaaslan.lwjwl.web.endpoint.response.Response;
+import com.github.ozanaaslan.lwjwl.web.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts a server in this JVM and puts load on it over loopback, once per combination of transport, execution
+ * model and scenario. Reports throughput and latency percentiles.
+ * <p>
+ * In the closed loop every connection sends its next request as soon as the previous response arrived, which
+ * measures the highest throughput but hides stalls: a connection waiting on a slow response sends nothing, so
+ * the requests that would have queued up behind it are never timed. In the open loop requests are due at a fixed
+ * rate and latency is taken from the time a request was due, not from when it could finally be sent, so stalls
+ * show up in the tail.
+ * <pre>{@code
+ * mvn -Pload test -Dload.args="--mode=open --rate=5000 --models=cached,bounded --transports=JDK,NIO"
+ * }</pre>
+ * Options, with their defaults: {@code --mode=closed} (or {@code open}), {@code --connections=16},
+ * {@code --rate=2000} requests per second in the open loop, {@code --duration=10} and {@code --warmup=3} seconds,
+ * {@code --transports=JDK}, {@code --models=cached,bounded,virtual} and {@code --scenarios=json,form,file,404}.
+ */
+public class LoadTest {
+
+    private static final Path FILES = createFiles();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        boolean open = options.getOrDefault("mode", "closed").equals("open");
+        int connections = Integer.parseInt(options.getOrDefault("connections", "16"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "2000"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "10")) * 1_000_000_000L;
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "3")) * 1_000_000_000L;
+
+        System.out.printf("%s loop, %d connections%s, %ds per scenario after %ds warmup%n",
+                open ? "Open" : "Closed", connections, open ? " at " + rate + " req/s" : "",
+                duration / 1_000_000_000L, warmup / 1_000_000_000L);
+        System.out.printf("%-6s %-16s %-6s %10s %10s %10s %10s %10s %8s%n",
+                "engine", "model", "load", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+
+        for (String transport : options.getOrDefault("transports", "JDK").split(",")) {
+            for (String model : options.getOrDefault("models", "cached,bounded,virtual").split(",")) {
+                LWJWL server;
+                InetSocketAddress address;
+                try {
+                    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), freePort());
+                    server = start(address.getPort(), Transport.valueOf(transport.toUpperCase()), model(model));
+                } catch (RuntimeException | Error e) {
+                    System.out.printf("%-6s %-16s skipped: %s%n", transport, model, e);
+                    continue;
+                }
+                try {
+                    for (String name : options.getOrDefault("scenarios", "json,form,file,404").split(",")) {
+                        byte[] request = request(name, address);
+                        run(address, request, connections, open, rate, warmup);
+                        Result result = run(address, request, connections, open, rate, duration);
+                        System.out.printf("%-6s %-16s %-6s %10.0f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                                transport, server.getOptions().getExecutionModel(), name,
+                                result.count.sum() * 1e9 / duration, millis(result.latency.getValueAtQuantile(0.5)),
+                                millis(result.latency.getValueAtQuantile(0.99)),
+                                millis(result.latency.getValueAtQuantile(0.999)),
+                                millis(result.latency.getValueAtQuantile(1)), result.errors.sum());
+                    }
+                    Runtime runtime = Runtime.getRuntime();
+                    System.out.printf("%-6s %-16s peak threads %d, heap %d MB%n", transport,
+                            server.getOptions().getExecutionModel(),
+                            ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                            (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+                } finally {
+                    server.stop();
+                    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+                }
+            }
+        }
+    }
+
+    private static ExecutionModel model(String name) {
+        switch (name) {
+            case "cached":
+                return ExecutionModel.cached();
+            case "virtual":
+                return ExecutionModel.virtualThreads();
+            case "bounded":
+                int cores = Runtime.getRuntime().availableProcessors();
+                return ExecutionModel.bounded(cores * 2, 1024);
+            default:
+                throw new IllegalArgumentException("Unknown execution model: " + name);
+        }
+    }
+
+    private static LWJWL start(int port, Transport transport, ExecutionModel model) {
+        LWJWL server = new LWJWL(port, new ServerOptions()
+                .setTransport(transport)
+                .setExecutionModel(model)
+                .setLogLevel(LogLevel.WARN));
+        server.register(LoadTest.class);
+        server.serveStatic("/download", FILES);
+        return server;
+    }
+
+    private static Result run(InetSocketAddress address, byte[] request, int connections, boolean open, int rate,
+                              long duration) throws InterruptedException {
+        Result result = new Result();
+        long start = System.nanoTime() + 10_000_000L;
+        long end = start + duration;
+        // In the open loop every connection sends its share of the rate, staggered against the others
+        long interval = open ? (long) (connections * 1e9 / rate) : 0;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            long first = start + (open ? i * interval / connections : 0);
+            Thread thread = new Thread(() -> drive(address, request, first, end, interval, result), "load-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        return result;
+    }
+
+    private static void drive(InetSocketAddress address, byte[] request, long first, long end, long interval,
+                              Result result) {
+        try (LoadConnection connection = new LoadConnection(address)) {
+            long due = first;
+            while (true) {
+                long now = System.nanoTime();
+                if (interval == 0) {
+                    if (now < first)
+                        LockSupport.parkNanos(first - now);
+                    due = System.nanoTime();
+                    if (due >= end)
+                        return;
+                } else {
+                    if (due >= end)
+                        return;
+                    if (due > now)
+                        LockSupport.parkNanos(due - now);
+                }
+                try {
+                    int status = connection.exchange(request);
+                    if (status >= 500)
+                        result.errors.increment();
+                } catch (IOException e) {
+                    result.errors.increment();
+                }
+                result.latency.record(System.nanoTime() - due);
+                result.count.increment();
+                due += interval;
+            }
+        }
+    }
+
+    private static byte[] request(String scenario, InetSocketAddress address) {
+        String host = "Host: " + address.getHostString() + ":" + address.getPort() + "\r\n";
+        switch (scenario) {
+            case "json":
+                return ("GET /json HTTP/1.1\r\n" + host + "Accept: application/json\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+            case "form":
+                String body = "name=Jane+Doe&email=jane%40example.com&age=31";
+                return ("POST /form HTTP/1.1\r\n" + host + "Content-Type: application/x-www-form-urlencoded\r\n"
+                        + "Content-Length: " + body.length() + "\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII);
+            case "file":
+                return ("GET /download/data.bin HTTP/1.1\r\n" + host + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            case "404":
+                return ("GET /wp-admin/setup-config.php HTTP/1.1\r\n" + host + "\r\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path createFiles() {
+        try {
+            Path directory = Files.createTempDirectory("lwjwl-load");
+            byte[] data = new byte[64 * 1024];
+            for (int i = 0; i < data.length; i++)
+                data[i] = (byte) i;
+            Files.write(directory.resolve("data.bin"), data);
+            directory.toFile().deleteOnExit();
+            directory.resolve("data.bin").toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Result {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    @Endpoint("/json") @GET
+    public static JsonBenchmark.Customer json(EndpointController controller) {
+        return JsonBenchmark.CUSTOMER;
+    }
+
+    @Endpoint("/form") @POST
+    public static Response form(EndpointController controller, @Param("name") String name,
+                                @Param("email") String email, @Param("age") int age) {
+        return Response.plain(200, "Welcome " + name + " (" + age + ")");
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.FormDecoder;
+import com.github.ozanaaslan.lwjwl.web.endpoint.request.FormParameters;
+import com.github.ozanaaslan.lwjwl.web.session.Cookie;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Form and query decoding, which {@code EndpointController.getMapFromString} delegates to, and cookies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    private static final String FORM = "name=Jane+Doe&email=jane.doe%40example.com&age=31&tags=a&tags=b"
+            + "&comment=1%2B1%3D2+%26+more&redirect=%2Fhome%3Ftab%3D1";
+    private static final String SET_COOKIE = "session=3f2a9c0e7b1d4e5f; Max-Age=3600; Path=/; Domain=example.com; Secure; HttpOnly";
+
+    private byte[] formBytes;
+    private Cookie cookie;
+
+    @Setup
+    public void setUp() {
+        formBytes = FORM.getBytes(StandardCharsets.US_ASCII);
+        cookie = Cookie.parse(SET_COOKIE);
+    }
+
+    @Benchmark
+    public FormParameters decodeBytes() {
+        return FormDecoder.decode(formBytes);
+    }
+
+    @Benchmark
+    public HashMap<String, String> mapFromString() {
+        return FormDecoder.decode(FORM).toMap();
+    }
+
+    @Benchmark
+    public Cookie cookieParse() {
+        return Cookie.parse(SET_COOKIE);
+    }
+
+    @Benchmark
+    public String cookieToString() {
+        return cookie.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import com.github.ozanaaslan.lwjwl.LWJWL;
+import com.github.ozanaaslan.lwjwl.server.ServerOptions;
+import com.github.ozanaaslan.lwjwl.util.log.LogLevel;
+import com.github.ozanaaslan.lwjwl.web.endpoint.route.Route;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LWJWL#getEndpoint(String, String)} against route tables of different sizes. Half of the routes are
+ * literal paths, the other half templates with a path variable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int routes;
+
+    private LWJWL server;
+    private String literal;
+    private String template;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new LWJWL(0, new ServerOptions().setLogLevel(LogLevel.WARN));
+        Method handler = RoutingBenchmark.class.getMethod("handler");
+        for (int i = 0; i < routes; i++) {
+            String path = i % 2 == 0 ? "/api/v1/resource" + i : "/api/v1/resource" + i + "/{id}/items";
+            server.getRouteTable().register(new Route(path, Set.of("GET", "POST"), handler));
+        }
+        literal = "/api/v1/resource" + (routes - 2);
+        template = "/api/v1/resource" + (routes - 1) + "/42/items";
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    public static void handler() {
+    }
+
+    @Benchmark
+    public Method literal() {
+        return server.getEndpoint(literal, "GET");
+    }
+
+    @Benchmark
+    public Method template() {
+        return server.getEndpoint(template, "POST");
+    }
+
+    @Benchmark
+    public Method miss() {
+        return server.getEndpoint("/api/v2/unknown", "GET");
+    }
+}